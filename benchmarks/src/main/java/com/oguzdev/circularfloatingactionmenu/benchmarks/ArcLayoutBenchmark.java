@@ -0,0 +1,70 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.benchmarks;
+
+import com.oguzdev.circularfloatingactionmenu.core.ArcLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position calculation of all the items of a menu, as done on every opening and anchor update,
+ * and its inverse, finding the item in a given direction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArcLayoutBenchmark {
+
+    @Param({"2", "5", "10", "50", "200"})
+    public int itemCount;
+
+    /** a quarter arc, as in the default menu, or a full circle */
+    @Param({"90", "360"})
+    public int sweep;
+
+    private float[] positions;
+    private float centerX;
+    private float centerY;
+    /** a touch up and to the left of the center, as in a drag towards the default arc */
+    private float touchX;
+    private float touchY;
+
+    @Setup
+    public void setUp() {
+        positions = new float[itemCount * 2];
+        centerX = 540;
+        centerY = 960;
+        touchX = centerX - 180;
+        touchY = centerY - 75;
+    }
+
+    @Benchmark
+    public float[] calculatePositions() {
+        ArcLayout.calculatePositions(centerX, centerY, 256, 180, 180 + sweep, itemCount, positions);
+        return positions;
+    }
+
+    /**
+     * The hit test of press-drag selection, which runs on every move event and must not depend on the item count.
+     */
+    @Benchmark
+    public int getItemIndexAt() {
+        return ArcLayout.getItemIndexAt(touchX - centerX, touchY - centerY, 48, Float.MAX_VALUE, 180, 180 + sweep, itemCount);
+    }
+}
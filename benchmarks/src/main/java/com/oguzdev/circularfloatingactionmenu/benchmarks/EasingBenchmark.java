@@ -0,0 +1,41 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.benchmarks;
+
+import com.oguzdev.circularfloatingactionmenu.core.Easing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The capture easing, evaluated once per animation frame of a floating view.
+ * Each operation advances to the next frame of a 300 ms capture at 60 fps, so both branches of the curve are covered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EasingBenchmark {
+
+    private static final int FRAMES = 18;
+
+    private int frame;
+
+    @Benchmark
+    public float captureFrame() {
+        frame = frame == FRAMES ? 0 : frame + 1;
+        return Easing.capture(frame / (float) FRAMES);
+    }
+}
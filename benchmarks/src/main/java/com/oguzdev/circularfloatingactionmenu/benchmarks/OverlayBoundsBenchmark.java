@@ -0,0 +1,64 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.benchmarks;
+
+import com.oguzdev.circularfloatingactionmenu.core.ArcLayout;
+import com.oguzdev.circularfloatingactionmenu.core.OverlayBounds;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizing of the overlay container around the items of a system overlay menu.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OverlayBoundsBenchmark {
+
+    private static final int ITEM_SIZE = 96;
+
+    @Param({"2", "5", "10", "50", "200"})
+    public int itemCount;
+
+    private int[] xs;
+    private int[] ys;
+    private OverlayBounds bounds;
+
+    @Setup
+    public void setUp() {
+        final float[] positions = new float[itemCount * 2];
+        ArcLayout.calculatePositions(540, 960, 256, 180, 270, itemCount, positions);
+        xs = new int[itemCount];
+        ys = new int[itemCount];
+        for(int i = 0; i < itemCount; i++) {
+            xs[i] = (int) positions[i * 2] - ITEM_SIZE / 2;
+            ys[i] = (int) positions[i * 2 + 1] - ITEM_SIZE / 2;
+        }
+        bounds = new OverlayBounds();
+    }
+
+    @Benchmark
+    public int calculateBounds() {
+        bounds.reset();
+        for(int i = 0; i < itemCount; i++) {
+            bounds.include(xs[i], ys[i], ITEM_SIZE, ITEM_SIZE);
+        }
+        return bounds.width() + bounds.height();
+    }
+}
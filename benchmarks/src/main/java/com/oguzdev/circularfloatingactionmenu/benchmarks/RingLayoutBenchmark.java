@@ -0,0 +1,57 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.benchmarks;
+
+import com.oguzdev.circularfloatingactionmenu.core.RingLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position calculation of all the items of a menu with the multi-ring layout, as done on every opening and anchor update.
+ * Compare with {@link ArcLayoutBenchmark} for the cost of wrapping large menus onto several rings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RingLayoutBenchmark {
+
+    @Param({"5", "50", "200"})
+    public int itemCount;
+
+    /** a quarter arc, as in the default menu, or a full circle */
+    @Param({"90", "360"})
+    public int sweep;
+
+    private float[] positions;
+    private float centerX;
+    private float centerY;
+
+    @Setup
+    public void setUp() {
+        positions = new float[itemCount * 2];
+        centerX = 540;
+        centerY = 960;
+    }
+
+    @Benchmark
+    public float[] calculatePositions() {
+        RingLayout.calculatePositions(centerX, centerY, 256, 56, 180, 180 + sweep, itemCount, positions);
+        return positions;
+    }
+}
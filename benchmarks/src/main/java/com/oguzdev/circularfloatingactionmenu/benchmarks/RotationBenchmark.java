@@ -0,0 +1,50 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.benchmarks;
+
+import com.oguzdev.circularfloatingactionmenu.core.EdgeGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repositioning of a docked floating view when the screen rotates between portrait and landscape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RotationBenchmark {
+
+    private static final int VIEW_SIZE = 168;
+    private static final int OVER_MARGIN = 16;
+
+    private int x = 900;
+    private int y = 1200;
+    private boolean portrait = true;
+
+    @Benchmark
+    public int rotate() {
+        final int oldHeight = portrait ? 1920 : 1080;
+        final int newWidth = portrait ? 1920 : 1080;
+        final int newHeight = portrait ? 1080 : 1920;
+        final int oldRange = oldHeight - VIEW_SIZE;
+        final int newBottom = newHeight - VIEW_SIZE;
+        x = EdgeGeometry.isOnRightHalf(x, newWidth, VIEW_SIZE) ? newWidth - VIEW_SIZE + OVER_MARGIN : -OVER_MARGIN;
+        y = EdgeGeometry.rescalePosition(y, oldRange, 0, newBottom);
+        portrait = !portrait;
+        return x + y;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.benchmarks;
+
+import com.oguzdev.circularfloatingactionmenu.core.TrashGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The trash hit test that runs on every ACTION_MOVE of a drag:
+ * the capture area of the trash icon followed by the intersection with the floating view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrashIntersectionBenchmark {
+
+    private static final int VIEW_SIZE = 168;
+
+    /** whether the floating view is over the trash icon */
+    @Param({"true", "false"})
+    public boolean hit;
+
+    private final int[] captureRect = new int[4];
+    private int viewX;
+    private int viewY;
+
+    @Setup
+    public void setUp() {
+        viewX = hit ? 480 : 40;
+        viewY = hit ? 60 : 1200;
+    }
+
+    @Benchmark
+    public boolean intersects() {
+        TrashGeometry.getCaptureRect(504, 48, 72, 72, 360, 54, 12, captureRect);
+        return TrashGeometry.intersects(captureRect[TrashGeometry.LEFT], captureRect[TrashGeometry.TOP],
+                captureRect[TrashGeometry.RIGHT], captureRect[TrashGeometry.BOTTOM],
+                viewX, viewY, viewX + VIEW_SIZE, viewY + VIEW_SIZE);
+    }
+}
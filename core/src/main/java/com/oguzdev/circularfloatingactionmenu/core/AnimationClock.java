@@ -0,0 +1,16 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * The time source of the Handler-driven animations.
+ * Replacing it lets tests and benchmarks step animations frame by frame instead of waiting for real time to pass.
+ */
+public interface AnimationClock {
+
+    /**
+     * @return the current time in milliseconds, on a monotonic time base
+     */
+    public long uptimeMillis();
+}
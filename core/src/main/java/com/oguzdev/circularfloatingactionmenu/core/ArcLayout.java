@@ -0,0 +1,116 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Places menu items at equal distances on a circular arc.
+ * This is the trigonometric equivalent of measuring an arc Path with a PathMeasure,
+ * so it runs on a plain JVM and does not allocate.
+ */
+public final class ArcLayout {
+
+    private ArcLayout() {
+    }
+
+    /**
+     * Finds the number of equal segments the arc is divided into.
+     * A full circle has as many segments as items, so that the first and the last ones do not overlap.
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param endAngle the angle (in degrees) the arc ends at
+     * @param count the number of items
+     * @return the number of segments, or 0 if there are no items
+     */
+    public static int getDivisor(int startAngle, int endAngle, int count) {
+        if(Math.abs(endAngle - startAngle) >= 360 || count <= 1) {
+            return count;
+        }
+        return count - 1;
+    }
+
+    /**
+     * Calculates the centers of the items on the arc.
+     * Angles are measured clockwise from the positive x axis, as in screen coordinates.
+     * The sweep is limited to a full circle in either direction.
+     * @param centerX x coordinate of the center of the circle
+     * @param centerY y coordinate of the center of the circle
+     * @param radius radius of the circle
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param endAngle the angle (in degrees) the arc ends at
+     * @param count the number of items
+     * @param out receives x and y of each item as consecutive pairs, its length must be at least 2 * count
+     */
+    public static void calculatePositions(float centerX, float centerY, float radius,
+                                          int startAngle, int endAngle, int count, float[] out) {
+        calculatePositions(centerX, centerY, radius, startAngle, endAngle, count, out, 0);
+    }
+
+    /**
+     * Same as {@link #calculatePositions(float, float, float, int, int, int, float[])},
+     * but writes the positions after the given number of items, e.g. to fill several arcs in one array.
+     * @param offset the index of the first item in out
+     */
+    public static void calculatePositions(float centerX, float centerY, float radius,
+                                          int startAngle, int endAngle, int count, float[] out, int offset) {
+        final int divisor = getDivisor(startAngle, endAngle, count);
+        if(divisor == 0) {
+            return;
+        }
+        final double sweep = Math.max(-360, Math.min(360, endAngle - startAngle));
+        final double step = Math.toRadians(sweep / divisor);
+        final double start = Math.toRadians(startAngle);
+        for(int i = 0; i < count; i++) {
+            final double angle = start + step * i;
+            out[(offset + i) * 2] = (float) (centerX + radius * Math.cos(angle));
+            out[(offset + i) * 2 + 1] = (float) (centerY + radius * Math.sin(angle));
+        }
+    }
+
+    /**
+     * Finds the item whose sector of the arc contains a point, which is the inverse of
+     * {@link #calculatePositions(float, float, float, int, int, int, float[])}.
+     * Each item owns the directions that are closer to it than to its neighbors, and on an open arc
+     * also half a segment beyond the ends. The result only depends on the angle and the distance of the point,
+     * so it takes the same time for any number of items.
+     * @param dx x coordinate of the point relative to the center of the circle
+     * @param dy y coordinate of the point relative to the center of the circle
+     * @param minDistance points closer to the center than this do not select an item
+     * @param maxDistance points further from the center than this do not select an item
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param endAngle the angle (in degrees) the arc ends at
+     * @param count the number of items
+     * @return the index of the item, or -1 if the point is not in the sector of any item
+     */
+    public static int getItemIndexAt(float dx, float dy, float minDistance, float maxDistance,
+                                     int startAngle, int endAngle, int count) {
+        final int divisor = getDivisor(startAngle, endAngle, count);
+        if(divisor == 0) {
+            return -1;
+        }
+        final double distance = Math.sqrt(dx * dx + dy * dy);
+        if(distance < minDistance || distance > maxDistance) {
+            return -1;
+        }
+        final double sweep = Math.max(-360, Math.min(360, endAngle - startAngle));
+        final double step = Math.abs(sweep) / divisor;
+        if(step == 0) {
+            // All the items are in the same direction, so the first one is on top
+            return 0;
+        }
+        // The angle of the point from the start of the arc, in the direction of the arc
+        double angle = (Math.toDegrees(Math.atan2(dy, dx)) - startAngle) * (sweep < 0 ? -1 : 1);
+        angle %= 360;
+        if(angle < 0) {
+            angle += 360;
+        }
+        if(angle > Math.abs(sweep) + step / 2) {
+            // Just before the start of the arc
+            angle -= 360;
+        }
+        int index = (int) Math.round(angle / step);
+        if(Math.abs(sweep) >= 360) {
+            return index % count;
+        }
+        return index >= 0 && index < count ? index : -1;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Places a window of a long item list on an arc that can be rotated like a dial.
+ * The arc shows a fixed number of slots, and the offset is the (fractional) list position shown in the first slot.
+ * A fixed set of slot views is reused: the view of a slot always shows a list position
+ * that is congruent to the slot modulo the number of slots, so that rotating the dial by one slot
+ * rebinds only the single view that moves from one end of the arc to the other.
+ */
+public final class DialLayout {
+
+    /** The number of slots kept bound beyond each end of the arc, so that items slide in and out smoothly */
+    public static final int BUFFER_SLOTS = 1;
+
+    private DialLayout() {
+    }
+
+    /**
+     * @param visibleSlotCount the number of slots on the arc
+     * @return the number of slot views needed, including the buffer at both ends
+     */
+    public static int getSlotCount(int visibleSlotCount) {
+        return visibleSlotCount + 2 * BUFFER_SLOTS;
+    }
+
+    /**
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param endAngle the angle (in degrees) the arc ends at
+     * @param visibleSlotCount the number of slots on the arc
+     * @return the signed angle (in degrees) between two neighboring slots
+     */
+    public static float getSlotAngle(int startAngle, int endAngle, int visibleSlotCount) {
+        final int divisor = ArcLayout.getDivisor(startAngle, endAngle, visibleSlotCount);
+        if(divisor == 0) {
+            return 0;
+        }
+        return (float) Math.max(-360, Math.min(360, endAngle - startAngle)) / divisor;
+    }
+
+    /**
+     * Limits the offset so that the arc is never scrolled beyond the ends of the list.
+     * @param offset the requested offset
+     * @param count the number of items in the list
+     * @param visibleSlotCount the number of slots on the arc
+     * @return the offset between 0 and the last position that still fills the arc
+     */
+    public static float clampOffset(float offset, int count, int visibleSlotCount) {
+        final int maxOffset = Math.max(0, count - visibleSlotCount);
+        return Math.max(0, Math.min(maxOffset, offset));
+    }
+
+    /**
+     * @param offset the current offset
+     * @return the list position shown by the first buffer slot, which may be negative
+     */
+    public static int getFirstPosition(float offset) {
+        return (int) Math.floor(offset) - BUFFER_SLOTS;
+    }
+
+    /**
+     * @param slot the index of the slot view
+     * @param firstPosition the result of {@link #getFirstPosition(float)}
+     * @param slotCount the result of {@link #getSlotCount(int)}
+     * @return the list position that the slot view shows
+     */
+    public static int getPosition(int slot, int firstPosition, int slotCount) {
+        int shift = (slot - firstPosition) % slotCount;
+        if(shift < 0) {
+            shift += slotCount;
+        }
+        return firstPosition + shift;
+    }
+
+    /**
+     * Finds how visible the item at a list position is. Items on the arc are fully visible, and the buffer items
+     * fade out over the slot beyond each end, so that they never show outside the arc.
+     * On a full circle the slot beyond the end is the first slot, so the items leaving and entering it cross-fade.
+     * @param position a list position
+     * @param offset the current offset
+     * @param count the number of items in the list
+     * @param visibleSlotCount the number of slots on the arc
+     * @return the alpha of the item, 0 if it must not be shown at all
+     */
+    public static float getSlotAlpha(int position, float offset, int count, int visibleSlotCount) {
+        if(position < 0 || position >= count) {
+            // Beyond the ends of the list
+            return 0;
+        }
+        // The arc goes from the first visible slot to the last one
+        final float slot = position - offset;
+        return Math.max(0, Math.min(1, Math.min(1 + slot, visibleSlotCount - slot)));
+    }
+
+    /**
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param slotAngle the result of {@link #getSlotAngle(int, int, int)}
+     * @param position a list position
+     * @param offset the current offset
+     * @return the angle (in degrees) of the item at the given list position
+     */
+    public static float getAngle(int startAngle, float slotAngle, int position, float offset) {
+        return startAngle + (position - offset) * slotAngle;
+    }
+
+    /**
+     * @param fromAngle an angle in degrees
+     * @param toAngle another angle in degrees
+     * @return the shortest rotation from one to the other, between -180 and 180 degrees
+     */
+    public static float getAngleDelta(float fromAngle, float toAngle) {
+        float delta = (toAngle - fromAngle) % 360;
+        if(delta > 180) {
+            delta -= 360;
+        }
+        else if(delta < -180) {
+            delta += 360;
+        }
+        return delta;
+    }
+}
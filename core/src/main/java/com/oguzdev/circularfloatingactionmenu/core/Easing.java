@@ -0,0 +1,32 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Easing curves of the Handler-driven animations.
+ */
+public final class Easing {
+
+    private Easing() {
+    }
+
+    /**
+     * The curve a floating view follows while it is captured by the finger or the trash icon.
+     * It rises quickly, overshoots slightly and settles at 1.
+     * @param timeRate the elapsed time divided by the duration of the curve, from 0 to 1
+     * @return the fraction of the way to the target, from 0.0 to 1.0 plus the overshoot
+     */
+    public static float capture(float timeRate) {
+        final float position;
+        // y=0.55sin(8.0564x-π/2)+0.55
+        if(timeRate <= 0.4) {
+            position = (float) (0.55 * Math.sin(8.0564 * timeRate - Math.PI / 2) + 0.55);
+        }
+        // y=4(0.417x-0.341)^2-4(0.417-0.341)^2+1
+        else {
+            position = (float) (4 * Math.pow(0.417 * timeRate - 0.341, 2) - 4 * Math.pow(0.417 - 0.341, 2) + 1);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Decides where a floating view docks: which screen edge it moves to,
+ * where a fling ends, and where it goes when the screen rotates.
+ */
+public final class EdgeGeometry {
+
+    private EdgeGeometry() {
+    }
+
+    /**
+     * @param x left edge of the view
+     * @param screenWidth width of the screen
+     * @param viewWidth width of the view
+     * @return whether the view is on the right half of the screen and should dock to the right edge
+     */
+    public static boolean isOnRightHalf(float x, int screenWidth, int viewWidth) {
+        return x > (screenWidth - viewWidth) / 2;
+    }
+
+    public static int clamp(int value, int min, int max) {
+        return Math.min(Math.max(min, value), max);
+    }
+
+    public static float clamp(float value, float min, float max) {
+        return Math.min(Math.max(min, value), max);
+    }
+
+    /**
+     * Projects where a fling comes to rest, assuming an exponential decay of the velocity.
+     * @param position the position where the finger was released
+     * @param velocity the release velocity, in pixels per second
+     * @param timeConstant the time constant of the decay, in seconds
+     * @return the position where the velocity reaches zero
+     */
+    public static float projectFling(float position, float velocity, float timeConstant) {
+        return position + velocity * timeConstant;
+    }
+
+    /**
+     * Finds the duration of a decelerating move whose initial speed matches the release speed.
+     * @param distance the distance to move, in pixels
+     * @param speed the release speed, in pixels per second
+     * @param minDuration the lower bound, in milliseconds
+     * @param maxDuration the upper bound, in milliseconds
+     * @return the duration in milliseconds
+     */
+    public static long flingDuration(double distance, double speed, long minDuration, long maxDuration) {
+        // A DecelerateInterpolator starts at twice the average speed
+        return Math.min(Math.max((long) (2000 * distance / speed), minDuration), maxDuration);
+    }
+
+    /**
+     * Keeps the relative vertical position of a docked view when the screen size changes.
+     * @param y the current position
+     * @param oldRange the height of the allowed area on the old screen
+     * @param newTop the lowest allowed position on the new screen
+     * @param newBottom the highest allowed position on the new screen
+     * @return the new position, rounded and clamped to the new area
+     */
+    public static int rescalePosition(int y, int oldRange, int newTop, int newBottom) {
+        final int newY = (int) (y * (newBottom - newTop) / (float) oldRange + 0.5f);
+        return clamp(newY, newTop, newBottom);
+    }
+}
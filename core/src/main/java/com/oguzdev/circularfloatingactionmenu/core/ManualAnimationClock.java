@@ -0,0 +1,48 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * An {@link AnimationClock} that only moves when it is told to.
+ * Each call to {@link #advance(long)} corresponds to one frame of an animation replayed at full speed.
+ */
+public class ManualAnimationClock implements AnimationClock {
+
+    private long uptimeMillis;
+
+    public ManualAnimationClock() {
+        this(0);
+    }
+
+    /**
+     * @param uptimeMillis the initial time
+     */
+    public ManualAnimationClock(long uptimeMillis) {
+        this.uptimeMillis = uptimeMillis;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return uptimeMillis;
+    }
+
+    /**
+     * Moves the clock forward.
+     * @param millis the time to add, must not be negative
+     */
+    public void advance(long millis) {
+        if(millis < 0) {
+            throw new IllegalArgumentException("A monotonic clock cannot go back in time: " + millis);
+        }
+        uptimeMillis += millis;
+    }
+
+    /**
+     * Sets the clock to the given time, e.g. the event time of a recorded touch.
+     * @param uptimeMillis the new time, must not be earlier than the current one
+     */
+    public void setUptimeMillis(long uptimeMillis) {
+        advance(uptimeMillis - this.uptimeMillis);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Accumulates the smallest rectangle that contains all the items of a menu,
+ * which is the minimum viable size of the overlay container in system overlay mode.
+ */
+public final class OverlayBounds {
+
+    /** The initial left and top edges, any item on the screen is placed before them */
+    private static final int INITIAL_MIN = 9999;
+
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public OverlayBounds() {
+        reset();
+    }
+
+    /**
+     * Prepares the bounds for a new set of items.
+     */
+    public void reset() {
+        left = INITIAL_MIN;
+        top = INITIAL_MIN;
+        right = 0;
+        bottom = 0;
+    }
+
+    /**
+     * Extends the bounds so that they contain the given item.
+     * @param x left edge of the item
+     * @param y top edge of the item
+     * @param width width of the item
+     * @param height height of the item
+     */
+    public void include(int x, int y, int width, int height) {
+        if(x < left) {
+            left = x;
+        }
+        if(y < top) {
+            top = y;
+        }
+        if(x + width > right) {
+            right = x + width;
+        }
+        if(y + height > bottom) {
+            bottom = y + height;
+        }
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Places menu items on concentric arcs, so that large menus do not overlap.
+ * The innermost ring is at the menu radius, and each following ring is one item further away.
+ * Each ring takes as many items as fit on it without overlapping, and the last ring
+ * spreads the remaining items over the whole arc, as {@link ArcLayout} does.
+ * Items are at least one item size apart in a straight line, so an inner ring that is too short
+ * for the items at both ends of an arc that is almost a circle ends earlier.
+ * A menu whose items all fit on the first ring is placed exactly as by {@link ArcLayout}.
+ */
+public final class RingLayout {
+
+    private RingLayout() {
+    }
+
+    /**
+     * Finds how many items fit on an arc of the given radius, with at least one item size between their centers.
+     * @param ringRadius radius of the arc
+     * @param itemSize the largest width or height of the items
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param endAngle the angle (in degrees) the arc ends at
+     * @return the number of items, at least 1
+     */
+    public static int getRingCapacity(float ringRadius, float itemSize, int startAngle, int endAngle) {
+        if(itemSize <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        if(itemSize > 2 * ringRadius) {
+            // No two points of the arc are far enough from each other
+            return 1;
+        }
+        final int sweep = Math.min(360, Math.abs(getRingEndAngle(ringRadius, itemSize, startAngle, endAngle) - startAngle));
+        final int capacity = (int) (sweep / getItemAngle(ringRadius, itemSize));
+        if(sweep >= 360) {
+            // The first and the last items must not overlap either
+            return Math.max(1, capacity);
+        }
+        // There is an item at both ends of the arc
+        return capacity + 1;
+    }
+
+    /**
+     * @param radius radius of the innermost ring
+     * @param itemSize the largest width or height of the items
+     * @param startAngle the angle (in degrees) the arcs start from
+     * @param endAngle the angle (in degrees) the arcs end at
+     * @param count the number of items
+     * @return the number of rings needed for all the items, or 0 if there are no items
+     */
+    public static int getRingCount(float radius, float itemSize, int startAngle, int endAngle, int count) {
+        int rings = 0;
+        int placed = 0;
+        while(placed < count) {
+            placed += getRingCapacity(radius + itemSize * rings, itemSize, startAngle, endAngle);
+            rings++;
+        }
+        return rings;
+    }
+
+    /**
+     * Calculates the centers of the items on the rings.
+     * The first items are placed on the innermost ring, in the same direction as on a single arc.
+     * @param centerX x coordinate of the center of the rings
+     * @param centerY y coordinate of the center of the rings
+     * @param radius radius of the innermost ring
+     * @param itemSize the largest width or height of the items, which is also the distance between the rings
+     * @param startAngle the angle (in degrees) the arcs start from
+     * @param endAngle the angle (in degrees) the arcs end at
+     * @param count the number of items
+     * @param out receives x and y of each item as consecutive pairs, its length must be at least 2 * count
+     */
+    public static void calculatePositions(float centerX, float centerY, float radius, float itemSize,
+                                          int startAngle, int endAngle, int count, float[] out) {
+        int placed = 0;
+        float ringRadius = radius;
+        while(placed < count) {
+            final int ringCount = Math.min(count - placed,
+                    getRingCapacity(ringRadius, itemSize, startAngle, endAngle));
+            final int ringEndAngle = getRingEndAngle(ringRadius, itemSize, startAngle, endAngle);
+            ArcLayout.calculatePositions(centerX, centerY, ringRadius, startAngle, ringEndAngle, ringCount, out, placed);
+            placed += ringCount;
+            ringRadius += itemSize;
+        }
+    }
+
+    /**
+     * Finds where the items of a ring end. The items at both ends of an open arc must not overlap
+     * across the rest of the circle either, so an arc that is almost a circle is shortened on the inner rings.
+     */
+    private static int getRingEndAngle(float ringRadius, float itemSize, int startAngle, int endAngle) {
+        final int sweep = Math.abs(endAngle - startAngle);
+        if(itemSize <= 0 || itemSize > 2 * ringRadius || sweep >= 360) {
+            return endAngle;
+        }
+        final int ringSweep = Math.min(sweep, (int) (360 - getItemAngle(ringRadius, itemSize)));
+        return endAngle >= startAngle ? startAngle + ringSweep : startAngle - ringSweep;
+    }
+
+    /**
+     * @return the angle (in degrees) between two items on a ring whose centers are one item size apart
+     */
+    private static double getItemAngle(float ringRadius, float itemSize) {
+        return Math.toDegrees(2 * Math.asin(itemSize / (2 * ringRadius)));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * A ring buffer of the recent touch samples of a gesture, in screen coordinates.
+ * It also keeps the samples that a MotionEvent batches as history, with their own event times.
+ */
+public final class TouchHistory {
+
+    /** The number of samples kept by default */
+    public static final int DEFAULT_CAPACITY = 20;
+
+    private final float[] x;
+    private final float[] y;
+    private final long[] time;
+    /** the index after the newest sample */
+    private int head;
+    private int size;
+
+    /**
+     * @param capacity the number of samples to keep, the oldest one is overwritten beyond it
+     */
+    public TouchHistory(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("A touch history needs room for at least one sample: " + capacity);
+        }
+        x = new float[capacity];
+        y = new float[capacity];
+        time = new long[capacity];
+    }
+
+    /**
+     * Removes all the samples.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Adds a sample, overwriting the oldest one when the history is full.
+     * A sample older than the newest one is ignored.
+     * @param x x in screen coordinates
+     * @param y y in screen coordinates
+     * @param time the event time in milliseconds
+     */
+    public void add(float x, float y, long time) {
+        if(size > 0 && time < getTime(size - 1)) {
+            return;
+        }
+        this.x[head] = x;
+        this.y[head] = y;
+        this.time[head] = time;
+        head = (head + 1) % this.x.length;
+        if(size < this.x.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @return the number of samples kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index 0 for the oldest sample
+     * @return x in screen coordinates
+     */
+    public float getX(int index) {
+        return x[toArrayIndex(index)];
+    }
+
+    /**
+     * @param index 0 for the oldest sample
+     * @return y in screen coordinates
+     */
+    public float getY(int index) {
+        return y[toArrayIndex(index)];
+    }
+
+    /**
+     * @param index 0 for the oldest sample
+     * @return the event time in milliseconds
+     */
+    public long getTime(int index) {
+        return time[toArrayIndex(index)];
+    }
+
+    /**
+     * Fits a line through the samples that are at most the given time older than the newest one (least squares).
+     * @param windowMillis the age of the oldest sample to use, relative to the newest one
+     * @param out receives the velocity as x and y, in pixels per millisecond, or zeros if it cannot be found
+     * @return false if there are fewer than two samples in the window, or they all have the same time
+     */
+    public boolean getVelocity(long windowMillis, float[] out) {
+        out[0] = 0;
+        out[1] = 0;
+        if(size == 0) {
+            return false;
+        }
+        final int last = size - 1;
+        final long latestTime = getTime(last);
+        double sumT = 0, sumX = 0, sumY = 0, sumTT = 0, sumTX = 0, sumTY = 0;
+        int count = 0;
+        for(int i = last; i >= 0; i--) {
+            final long dt = getTime(i) - latestTime;
+            if(-dt > windowMillis) {
+                break;
+            }
+            final float sampleX = getX(i);
+            final float sampleY = getY(i);
+            sumT += dt;
+            sumX += sampleX;
+            sumY += sampleY;
+            sumTT += (double) dt * dt;
+            sumTX += (double) dt * sampleX;
+            sumTY += (double) dt * sampleY;
+            count++;
+        }
+        final double denominator = count * sumTT - sumT * sumT;
+        if(count < 2 || denominator == 0) {
+            return false;
+        }
+        out[0] = (float) ((count * sumTX - sumT * sumX) / denominator);
+        out[1] = (float) ((count * sumTY - sumT * sumY) / denominator);
+        return true;
+    }
+
+    private int toArrayIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return (head - size + index + x.length) % x.length;
+    }
+}
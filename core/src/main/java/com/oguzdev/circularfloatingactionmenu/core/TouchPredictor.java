@@ -0,0 +1,138 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Predicts where the finger will be one frame ahead, from the velocity of the recent samples of a {@link TouchHistory}.
+ * A prediction is compared with the actual position once a sample at or after the predicted time arrives,
+ * and the errors are kept so that the benefit of the prediction can be measured.
+ * Only one prediction waits for its comparison at a time, the ones made in the meantime are not measured.
+ */
+public final class TouchPredictor {
+
+    /** One frame at 60 fps */
+    public static final long DEFAULT_LOOKAHEAD_MILLIS = 17L;
+    /** The age of the oldest sample used for the velocity */
+    public static final long VELOCITY_WINDOW_MILLIS = 50L;
+
+    private final long lookaheadMillis;
+    /** reusable velocity in pixels per millisecond */
+    private final float[] velocity = new float[2];
+    /** whether the last prediction still waits to be compared with the actual position */
+    private boolean hasPendingPrediction;
+    private float pendingX;
+    private float pendingY;
+    private long pendingTime;
+    private double errorSum;
+    private float maxError;
+    private int errorCount;
+
+    /**
+     * @param lookaheadMillis how far ahead to predict, in milliseconds
+     */
+    public TouchPredictor(long lookaheadMillis) {
+        this.lookaheadMillis = lookaheadMillis;
+    }
+
+    /**
+     * Drops the prediction that was not compared yet. Must be called when a gesture starts.
+     * The error statistics are kept.
+     */
+    public void reset() {
+        hasPendingPrediction = false;
+    }
+
+    /**
+     * Predicts the position of the finger ahead of the newest sample.
+     * @param history the samples of the current gesture
+     * @param out receives the predicted x and y in screen coordinates
+     * @return false if the history is empty
+     */
+    public boolean predict(TouchHistory history, float[] out) {
+        final int size = history.size();
+        if(size == 0) {
+            return false;
+        }
+        evaluatePendingPrediction(history);
+
+        final int last = size - 1;
+        out[0] = history.getX(last);
+        out[1] = history.getY(last);
+        if(history.getVelocity(VELOCITY_WINDOW_MILLIS, velocity)) {
+            out[0] += velocity[0] * lookaheadMillis;
+            out[1] += velocity[1] * lookaheadMillis;
+        }
+
+        // Samples may arrive faster than the lookahead, so a prediction is only replaced once it was compared
+        if(!hasPendingPrediction) {
+            pendingX = out[0];
+            pendingY = out[1];
+            pendingTime = history.getTime(last) + lookaheadMillis;
+            hasPendingPrediction = true;
+        }
+        return true;
+    }
+
+    /**
+     * Records the error of the pending prediction once the history reaches its time.
+     * The actual position is interpolated linearly between the two samples around that time.
+     */
+    private void evaluatePendingPrediction(TouchHistory history) {
+        final int last = history.size() - 1;
+        if(!hasPendingPrediction || history.getTime(last) < pendingTime) {
+            return;
+        }
+        // The first sample at or after the predicted time
+        int index = last;
+        while(index > 0 && history.getTime(index - 1) >= pendingTime) {
+            index--;
+        }
+        float actualX = history.getX(index);
+        float actualY = history.getY(index);
+        if(index > 0) {
+            final long t0 = history.getTime(index - 1);
+            final long t1 = history.getTime(index);
+            if(t1 > t0) {
+                final float rate = (float) (pendingTime - t0) / (t1 - t0);
+                actualX = history.getX(index - 1) + (actualX - history.getX(index - 1)) * rate;
+                actualY = history.getY(index - 1) + (actualY - history.getY(index - 1)) * rate;
+            }
+        }
+        final float error = (float) Math.hypot(pendingX - actualX, pendingY - actualY);
+        errorSum += error;
+        maxError = Math.max(maxError, error);
+        errorCount++;
+        hasPendingPrediction = false;
+    }
+
+    /**
+     * @return the mean prediction error in pixels, or 0 if no prediction was compared yet
+     */
+    public float getMeanError() {
+        return errorCount == 0 ? 0 : (float) (errorSum / errorCount);
+    }
+
+    /**
+     * @return the largest prediction error in pixels
+     */
+    public float getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * @return the number of predictions compared with the actual position
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Clears the error statistics.
+     */
+    public void resetErrorStatistics() {
+        errorSum = 0;
+        maxError = 0;
+        errorCount = 0;
+    }
+}
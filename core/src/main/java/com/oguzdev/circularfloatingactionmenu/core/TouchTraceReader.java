@@ -0,0 +1,161 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a trace written by {@link TouchTraceWriter} one event at a time.
+ * The times are relative to the first event of the trace, which is at 0.
+ * The arrays of the samples are reused from one event to the next.
+ */
+public final class TouchTraceReader {
+
+    private final DataInputStream input;
+    private int source;
+    private int action;
+    private long eventTime;
+    private long downTime;
+    private float localOffsetX;
+    private float localOffsetY;
+    private int sampleCount;
+    private long[] sampleTimes = new long[8];
+    private float[] sampleX = new float[8];
+    private float[] sampleY = new float[8];
+    private int eventCount;
+
+    /**
+     * Reads and checks the header.
+     * @param input the stream to read from, buffered by the reader
+     * @throws IOException if the header cannot be read, or the stream is not a trace of the supported version
+     */
+    public TouchTraceReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        if(this.input.readInt() != TouchTraceWriter.MAGIC) {
+            throw new IOException("Not a touch trace");
+        }
+        final int version = this.input.readShort();
+        if(version != TouchTraceWriter.VERSION) {
+            throw new IOException("Unsupported touch trace version: " + version);
+        }
+    }
+
+    /**
+     * Reads the next event.
+     * @return false at the end of the trace
+     * @throws IOException if the event cannot be read or is truncated
+     */
+    public boolean next() throws IOException {
+        final int nextSource;
+        try {
+            nextSource = input.readInt();
+        }
+        catch(EOFException e) {
+            return false;
+        }
+        source = nextSource;
+        action = input.readByte();
+        eventTime += input.readInt();
+        downTime = eventTime - input.readInt();
+        localOffsetX = input.readFloat();
+        localOffsetY = input.readFloat();
+        sampleCount = input.readShort();
+        if(sampleCount <= 0) {
+            throw new IOException("Event without samples at " + eventCount);
+        }
+        if(sampleCount > sampleTimes.length) {
+            sampleTimes = new long[sampleCount];
+            sampleX = new float[sampleCount];
+            sampleY = new float[sampleCount];
+        }
+        for(int i = 0; i < sampleCount; i++) {
+            sampleTimes[i] = eventTime - input.readInt();
+            sampleX[i] = input.readFloat();
+            sampleY[i] = input.readFloat();
+        }
+        eventCount++;
+        return true;
+    }
+
+    /**
+     * @return the id of the view that received the event
+     */
+    public int getSource() {
+        return source;
+    }
+
+    public int getAction() {
+        return action;
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public long getDownTime() {
+        return downTime;
+    }
+
+    /**
+     * @return the local x minus the screen x of the event
+     */
+    public float getLocalOffsetX() {
+        return localOffsetX;
+    }
+
+    /**
+     * @return the local y minus the screen y of the event
+     */
+    public float getLocalOffsetY() {
+        return localOffsetY;
+    }
+
+    /**
+     * @return the number of samples of the event, including the event itself
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @param index 0 for the oldest sample
+     * @return the time of the sample
+     */
+    public long getSampleTime(int index) {
+        checkSampleIndex(index);
+        return sampleTimes[index];
+    }
+
+    /**
+     * @param index 0 for the oldest sample
+     * @return the screen x of the sample
+     */
+    public float getSampleX(int index) {
+        checkSampleIndex(index);
+        return sampleX[index];
+    }
+
+    /**
+     * @param index 0 for the oldest sample
+     * @return the screen y of the sample
+     */
+    public float getSampleY(int index) {
+        checkSampleIndex(index);
+        return sampleY[index];
+    }
+
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private void checkSampleIndex(int index) {
+        if(index < 0 || index >= sampleCount) {
+            throw new IndexOutOfBoundsException("index: " + index + ", samples: " + sampleCount);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes touch events in the binary touch trace format, which {@link TouchTraceReader} reads back.
+ * All numbers are big-endian:
+ * <pre>
+ * header: int MAGIC, short VERSION
+ * event:  int source id, byte action,
+ *         int time since the previous event (ms), int time since the down event (ms),
+ *         float local minus screen x, float local minus screen y,
+ *         short sample count, then per sample: int time before the event (ms), float screen x, float screen y
+ * </pre>
+ * The samples are ordered oldest first, and the last one is the position of the event itself.
+ * The source id identifies the view that received the event; it must stay the same for a view
+ * while it is attached, so that removing another view does not redirect its events.
+ */
+public final class TouchTraceWriter {
+
+    /** The identifier at the start of a trace ("FVTT") */
+    public static final int MAGIC = 0x46565454;
+    /** The version of the format; 2 replaced the byte index of version 1 by an int id */
+    public static final int VERSION = 2;
+
+    private final DataOutputStream output;
+    private long lastEventTime;
+    private int eventCount;
+    /** the time of the event whose samples are being written */
+    private long eventTime;
+    private int remainingSamples;
+
+    /**
+     * Writes the header.
+     * @param output the stream to write to, buffered by the writer
+     * @throws IOException if the header cannot be written
+     */
+    public TouchTraceWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+        this.output.writeInt(MAGIC);
+        this.output.writeShort(VERSION);
+    }
+
+    /**
+     * Starts an event, which must be followed by exactly sampleCount calls to {@link #writeSample(long, float, float)}.
+     * @param source the id of the view that received the event
+     * @param action the masked action of the event
+     * @param eventTime the time of the event in milliseconds
+     * @param downTime the time of the down event of the gesture in milliseconds
+     * @param localOffsetX the local x minus the screen x of the event
+     * @param localOffsetY the local y minus the screen y of the event
+     * @param sampleCount the number of samples, including the event itself
+     * @throws IOException if the event cannot be written
+     */
+    public void beginEvent(int source, int action, long eventTime, long downTime,
+                           float localOffsetX, float localOffsetY, int sampleCount) throws IOException {
+        if(remainingSamples != 0) {
+            throw new IllegalStateException("The previous event misses " + remainingSamples + " samples.");
+        }
+        if(sampleCount < 1 || sampleCount > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid sample count: " + sampleCount);
+        }
+        output.writeInt(source);
+        output.writeByte(action);
+        output.writeInt(eventCount == 0 ? 0 : (int) (eventTime - lastEventTime));
+        output.writeInt((int) (eventTime - downTime));
+        output.writeFloat(localOffsetX);
+        output.writeFloat(localOffsetY);
+        output.writeShort(sampleCount);
+        this.eventTime = eventTime;
+        remainingSamples = sampleCount;
+        lastEventTime = eventTime;
+        eventCount++;
+    }
+
+    /**
+     * Writes the next sample of the current event.
+     * @param time the time of the sample in milliseconds, not after the event
+     * @param x the screen x
+     * @param y the screen y
+     * @throws IOException if the sample cannot be written
+     */
+    public void writeSample(long time, float x, float y) throws IOException {
+        if(remainingSamples == 0) {
+            throw new IllegalStateException("No event is waiting for samples.");
+        }
+        output.writeInt((int) (eventTime - time));
+        output.writeFloat(x);
+        output.writeFloat(y);
+        remainingSamples--;
+    }
+
+    /**
+     * @return the number of events started
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Flushes and closes the stream.
+     * @throws IOException if the stream cannot be flushed or closed
+     */
+    public void close() throws IOException {
+        output.close();
+    }
+}
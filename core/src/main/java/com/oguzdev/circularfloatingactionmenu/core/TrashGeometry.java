@@ -0,0 +1,49 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * Hit testing between a floating view and the trash icon.
+ * Rectangles are stored as {left, top, right, bottom} in bottom-left based window coordinates,
+ * where top is the edge with the smaller value.
+ */
+public final class TrashGeometry {
+
+    public static final int LEFT = 0;
+    public static final int TOP = 1;
+    public static final int RIGHT = 2;
+    public static final int BOTTOM = 3;
+
+    private TrashGeometry() {
+    }
+
+    /**
+     * Calculates the area that captures a floating view around the trash icon.
+     * The area extends to the bottom of the screen and has extra margins on the sides and above the icon.
+     * @param iconX left edge of the icon
+     * @param iconY bottom edge of the icon, measured from the bottom of the trash view
+     * @param iconWidth width of the icon without its padding
+     * @param iconHeight height of the icon without its padding
+     * @param rootHeight height of the trash view
+     * @param horizontalMargin extra capture area on each side, in pixels
+     * @param verticalMargin extra capture area above the icon, in pixels
+     * @param out receives the capture area, its length must be at least 4
+     */
+    public static void getCaptureRect(float iconX, float iconY, float iconWidth, float iconHeight, int rootHeight,
+                                      float horizontalMargin, float verticalMargin, int[] out) {
+        out[LEFT] = (int) (iconX - horizontalMargin);
+        out[TOP] = -rootHeight;
+        out[RIGHT] = (int) (iconX + iconWidth + horizontalMargin);
+        out[BOTTOM] = (int) (iconY + iconHeight + verticalMargin);
+    }
+
+    /**
+     * The same test as android.graphics.Rect#intersects(Rect, Rect).
+     * @return whether the two rectangles overlap
+     */
+    public static boolean intersects(int left1, int top1, int right1, int bottom1,
+                                     int left2, int top2, int right2, int bottom2) {
+        return left1 < right2 && left2 < right1 && top1 < bottom2 && top2 < bottom1;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+/**
+ * The visible area of the window that the items of a menu are added to.
+ * Items that do not intersect it cannot be seen or touched, so they do not need to be attached at all.
+ */
+public final class Viewport {
+
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    /**
+     * Sets the visible area.
+     * @param left left edge
+     * @param top top edge
+     * @param right right edge, exclusive
+     * @param bottom bottom edge, exclusive
+     */
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**
+     * @param x left edge of the item
+     * @param y top edge of the item
+     * @param width width of the item
+     * @param height height of the item
+     * @return whether any part of the item is in the visible area
+     */
+    public boolean intersects(int x, int y, int width, int height) {
+        return x < right && y < bottom && x + width > left && y + height > top;
+    }
+}
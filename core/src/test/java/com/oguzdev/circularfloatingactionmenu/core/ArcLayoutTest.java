@@ -0,0 +1,102 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArcLayoutTest {
+
+    private static final float DELTA = 1e-3f;
+    private static final float RADIUS = 100;
+    private static final float MIN_DISTANCE = 20;
+    private static final float MAX_DISTANCE = 150;
+    private static final int[][] ARCS = {
+            {180, 270}, {270, 180}, {0, 90}, {-45, 225}, {90, 450}, {0, 360}, {360, 0}, {90, -270}, {30, 60}, {-90, -30}
+    };
+
+    @Test
+    public void fullCircleHasOneSegmentPerItem() {
+        assertEquals(0, ArcLayout.getDivisor(0, 360, 0));
+        assertEquals(1, ArcLayout.getDivisor(0, 360, 1));
+        assertEquals(6, ArcLayout.getDivisor(0, 360, 6));
+        assertEquals(6, ArcLayout.getDivisor(360, 0, 6));
+        assertEquals(5, ArcLayout.getDivisor(180, 270, 6));
+        assertEquals(1, ArcLayout.getDivisor(180, 270, 1));
+    }
+
+    @Test
+    public void itemsAreEquallySpacedFromStartToEnd() {
+        final float[] out = new float[6];
+        ArcLayout.calculatePositions(10, 20, RADIUS, 180, 270, 3, out);
+        assertEquals(10 - RADIUS, out[0], DELTA);
+        assertEquals(20, out[1], DELTA);
+        assertEquals(10 - RADIUS * Math.sqrt(0.5), out[2], DELTA);
+        assertEquals(20 - RADIUS * Math.sqrt(0.5), out[3], DELTA);
+        assertEquals(10, out[4], DELTA);
+        assertEquals(20 - RADIUS, out[5], DELTA);
+    }
+
+    @Test
+    public void offsetWritesAfterTheGivenItems() {
+        final float[] out = new float[8];
+        ArcLayout.calculatePositions(0, 0, RADIUS, 0, 90, 2, out, 2);
+        assertEquals(0, out[0], DELTA);
+        assertEquals(RADIUS, out[4], DELTA);
+        assertEquals(RADIUS, out[7], DELTA);
+    }
+
+    @Test
+    public void hitTestFindsEveryItemAtItsPosition() {
+        for(int[] arc : ARCS) {
+            for(int count = 1; count <= 12; count++) {
+                final float[] out = new float[count * 2];
+                ArcLayout.calculatePositions(0, 0, RADIUS, arc[0], arc[1], count, out);
+                for(int i = 0; i < count; i++) {
+                    assertEquals(arc[0] + ".." + arc[1] + " with " + count + " items", i,
+                            ArcLayout.getItemIndexAt(out[i * 2], out[i * 2 + 1], MIN_DISTANCE, MAX_DISTANCE, arc[0], arc[1], count));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hitTestSplitsSegmentsHalfway() {
+        // Three items at 180, 225 and 270 degrees
+        assertEquals(0, getItemIndexAt(202, 180, 270, 3));
+        assertEquals(1, getItemIndexAt(203, 180, 270, 3));
+        assertEquals(1, getItemIndexAt(247, 180, 270, 3));
+        assertEquals(2, getItemIndexAt(248, 180, 270, 3));
+        // Half a segment beyond the ends of an open arc still selects the end items
+        assertEquals(0, getItemIndexAt(158, 180, 270, 3));
+        assertEquals(2, getItemIndexAt(292, 180, 270, 3));
+        assertEquals(-1, getItemIndexAt(150, 180, 270, 3));
+        assertEquals(-1, getItemIndexAt(300, 180, 270, 3));
+        // A full circle wraps around from the last item to the first one
+        assertEquals(0, getItemIndexAt(350, 0, 360, 4));
+        assertEquals(3, getItemIndexAt(300, 0, 360, 4));
+        // Arcs in the counterclockwise direction
+        assertEquals(0, getItemIndexAt(265, 270, 180, 3));
+        assertEquals(2, getItemIndexAt(185, 270, 180, 3));
+    }
+
+    @Test
+    public void hitTestIgnoresPointsOutsideTheRing() {
+        assertEquals(-1, ArcLayout.getItemIndexAt(-MIN_DISTANCE + 1, 0, MIN_DISTANCE, MAX_DISTANCE, 180, 270, 3));
+        assertEquals(-1, ArcLayout.getItemIndexAt(-MAX_DISTANCE - 1, 0, MIN_DISTANCE, MAX_DISTANCE, 180, 270, 3));
+        assertEquals(-1, ArcLayout.getItemIndexAt(-RADIUS, 0, MIN_DISTANCE, MAX_DISTANCE, 180, 270, 0));
+    }
+
+    @Test
+    public void hitTestOfAnEmptyArcSelectsTheTopItem() {
+        assertEquals(0, ArcLayout.getItemIndexAt(-RADIUS, 0, MIN_DISTANCE, MAX_DISTANCE, 180, 180, 3));
+    }
+
+    private static int getItemIndexAt(double angle, int startAngle, int endAngle, int count) {
+        final float dx = (float) (RADIUS * Math.cos(Math.toRadians(angle)));
+        final float dy = (float) (RADIUS * Math.sin(Math.toRadians(angle)));
+        return ArcLayout.getItemIndexAt(dx, dy, MIN_DISTANCE, MAX_DISTANCE, startAngle, endAngle, count);
+    }
+}
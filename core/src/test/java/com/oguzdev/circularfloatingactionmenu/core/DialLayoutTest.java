@@ -0,0 +1,135 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DialLayoutTest {
+
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void slotsIncludeABufferAtBothEnds() {
+        assertEquals(7, DialLayout.getSlotCount(5));
+        assertEquals(22.5f, DialLayout.getSlotAngle(180, 270, 5), DELTA);
+        assertEquals(-22.5f, DialLayout.getSlotAngle(270, 180, 5), DELTA);
+        assertEquals(72, DialLayout.getSlotAngle(0, 360, 5), DELTA);
+        assertEquals(0, DialLayout.getSlotAngle(180, 270, 0), DELTA);
+    }
+
+    @Test
+    public void offsetStaysWithinTheList() {
+        assertEquals(0, DialLayout.clampOffset(-2.5f, 20, 5), DELTA);
+        assertEquals(7.5f, DialLayout.clampOffset(7.5f, 20, 5), DELTA);
+        assertEquals(15, DialLayout.clampOffset(16, 20, 5), DELTA);
+        // A list shorter than the arc cannot be scrolled
+        assertEquals(0, DialLayout.clampOffset(2, 3, 5), DELTA);
+    }
+
+    @Test
+    public void eachPositionIsShownByOneSlotOnly() {
+        final int slotCount = DialLayout.getSlotCount(5);
+        for(float offset = 0; offset <= 15; offset += 0.25f) {
+            final int firstPosition = DialLayout.getFirstPosition(offset);
+            final boolean[] shown = new boolean[slotCount];
+            for(int slot = 0; slot < slotCount; slot++) {
+                final int position = DialLayout.getPosition(slot, firstPosition, slotCount);
+                assertTrue(position >= firstPosition && position < firstPosition + slotCount);
+                // A slot always shows positions congruent to it
+                assertEquals(0, ((position - slot) % slotCount + slotCount) % slotCount);
+                shown[position - firstPosition] = true;
+            }
+            for(boolean s : shown) {
+                assertTrue(s);
+            }
+        }
+    }
+
+    @Test
+    public void rotatingByOneSlotRebindsOneSlot() {
+        final int slotCount = DialLayout.getSlotCount(5);
+        int changed = 0;
+        for(int slot = 0; slot < slotCount; slot++) {
+            if(DialLayout.getPosition(slot, DialLayout.getFirstPosition(3), slotCount)
+                    != DialLayout.getPosition(slot, DialLayout.getFirstPosition(4), slotCount)) {
+                changed++;
+            }
+        }
+        assertEquals(1, changed);
+    }
+
+    @Test
+    public void angleDeltaIsTheShortestRotation() {
+        assertEquals(20, DialLayout.getAngleDelta(170, -170), DELTA);
+        assertEquals(-20, DialLayout.getAngleDelta(-170, 170), DELTA);
+        assertEquals(90, DialLayout.getAngleDelta(0, 90), DELTA);
+        assertEquals(-90, DialLayout.getAngleDelta(0, 270), DELTA);
+        assertEquals(0, DialLayout.getAngleDelta(45, 405), DELTA);
+    }
+
+    @Test
+    public void bufferSlotsAreHiddenOutsideTheArc() {
+        // Five slots from 180 to 270 degrees at an integer offset
+        final int firstPosition = DialLayout.getFirstPosition(3);
+        final int slotCount = DialLayout.getSlotCount(5);
+        for(int slot = 0; slot < slotCount; slot++) {
+            final int position = DialLayout.getPosition(slot, firstPosition, slotCount);
+            final float angle = DialLayout.getAngle(180, DialLayout.getSlotAngle(180, 270, 5), position, 3);
+            final float alpha = DialLayout.getSlotAlpha(position, 3, 20, 5);
+            if(angle < 180 || angle > 270) {
+                assertEquals(0, alpha, DELTA);
+            }
+            else {
+                assertEquals(1, alpha, DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void bufferSlotsFadeWhileTheDialRotates() {
+        assertEquals(0.75f, DialLayout.getSlotAlpha(3, 3.25f, 20, 5), DELTA);
+        assertEquals(0.25f, DialLayout.getSlotAlpha(2, 2.75f, 20, 5), DELTA);
+        assertEquals(0.25f, DialLayout.getSlotAlpha(8, 3.25f, 20, 5), DELTA);
+        assertEquals(0, DialLayout.getSlotAlpha(1, 2.5f, 20, 5), DELTA);
+        assertEquals(0, DialLayout.getSlotAlpha(9, 3.5f, 20, 5), DELTA);
+        // Inside the arc
+        assertEquals(1, DialLayout.getSlotAlpha(5, 3.25f, 20, 5), DELTA);
+    }
+
+    @Test
+    public void slotsBeyondTheListAreHidden() {
+        assertEquals(0, DialLayout.getSlotAlpha(-1, 0, 20, 5), DELTA);
+        assertEquals(0, DialLayout.getSlotAlpha(3, 0, 3, 5), DELTA);
+        assertEquals(1, DialLayout.getSlotAlpha(2, 0, 3, 5), DELTA);
+    }
+
+    @Test
+    public void itemsSharingASlotOfAFullCircleCrossFade() {
+        final int visibleSlotCount = 5;
+        final float slotAngle = DialLayout.getSlotAngle(0, 360, visibleSlotCount);
+        final int slotCount = DialLayout.getSlotCount(visibleSlotCount);
+        for(float offset = 0; offset <= 15; offset += 0.25f) {
+            final int firstPosition = DialLayout.getFirstPosition(offset);
+            float visible = 0;
+            for(int slot = 0; slot < slotCount; slot++) {
+                final int position = DialLayout.getPosition(slot, firstPosition, slotCount);
+                final float alpha = DialLayout.getSlotAlpha(position, offset, 20, visibleSlotCount);
+                visible += alpha;
+                for(int other = slot + 1; other < slotCount; other++) {
+                    final int otherPosition = DialLayout.getPosition(other, firstPosition, slotCount);
+                    final float delta = DialLayout.getAngleDelta(DialLayout.getAngle(0, slotAngle, position, offset),
+                            DialLayout.getAngle(0, slotAngle, otherPosition, offset));
+                    if(Math.abs(delta) < DELTA) {
+                        // Two items at the same angle never add up to more than one
+                        assertEquals(1, alpha + DialLayout.getSlotAlpha(otherPosition, offset, 20, visibleSlotCount), DELTA);
+                    }
+                }
+            }
+            assertEquals(visibleSlotCount, visible, DELTA);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RingLayoutTest {
+
+    private static final float DELTA = 1e-3f;
+    private static final int[][] ARCS = {{180, 270}, {270, 180}, {0, 90}, {-45, 225}, {0, 360}, {90, -270}};
+    private static final float[] RADII = {50, 100, 256};
+    private static final float[] ITEM_SIZES = {20, 48, 96};
+
+    @Test
+    public void itemsOfAFullRingFitOnASingleArc() {
+        final float[] arc = new float[10];
+        final float[] rings = new float[10];
+        ArcLayout.calculatePositions(10, 20, 100, 180, 270, 5, arc);
+        assertEquals(1, RingLayout.getRingCount(100, 20, 180, 270, 5));
+        RingLayout.calculatePositions(10, 20, 100, 20, 180, 270, 5, rings);
+        for(int i = 0; i < arc.length; i++) {
+            assertEquals(arc[i], rings[i], DELTA);
+        }
+    }
+
+    @Test
+    public void ringCountCoversAllTheItems() {
+        assertEquals(0, RingLayout.getRingCount(100, 48, 180, 270, 0));
+        for(int[] arc : ARCS) {
+            for(float radius : RADII) {
+                for(float itemSize : ITEM_SIZES) {
+                    for(int count = 1; count <= 40; count++) {
+                        final int rings = RingLayout.getRingCount(radius, itemSize, arc[0], arc[1], count);
+                        int capacity = 0;
+                        for(int ring = 0; ring < rings; ring++) {
+                            capacity += RingLayout.getRingCapacity(radius + itemSize * ring, itemSize, arc[0], arc[1]);
+                        }
+                        assertTrue(capacity >= count);
+                        assertTrue(capacity - RingLayout.getRingCapacity(radius + itemSize * (rings - 1),
+                                itemSize, arc[0], arc[1]) < count);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void itemsAreAtLeastOneItemSizeApart() {
+        for(int[] arc : ARCS) {
+            for(float radius : RADII) {
+                for(float itemSize : ITEM_SIZES) {
+                    for(int count = 1; count <= 40; count++) {
+                        final float[] out = new float[count * 2];
+                        RingLayout.calculatePositions(0, 0, radius, itemSize, arc[0], arc[1], count, out);
+                        for(int i = 0; i < count; i++) {
+                            for(int j = i + 1; j < count; j++) {
+                                final double distance = Math.hypot(out[i * 2] - out[j * 2], out[i * 2 + 1] - out[j * 2 + 1]);
+                                assertTrue(arc[0] + ".." + arc[1] + " r=" + radius + " size=" + itemSize
+                                                + " count=" + count + ": items " + i + " and " + j + " are " + distance + " apart",
+                                        distance >= itemSize - DELTA);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ringsAreOneItemSizeApart() {
+        final float radius = 100;
+        final float itemSize = 48;
+        final int count = 3 * RingLayout.getRingCapacity(radius, itemSize, 180, 270);
+        final float[] out = new float[count * 2];
+        RingLayout.calculatePositions(0, 0, radius, itemSize, 180, 270, count, out);
+        float previous = radius;
+        for(int i = 0; i < count; i++) {
+            final float distance = (float) Math.hypot(out[i * 2], out[i * 2 + 1]);
+            assertTrue(distance >= previous - DELTA);
+            assertEquals(0, (distance - radius) % itemSize, DELTA);
+            previous = distance;
+        }
+    }
+}
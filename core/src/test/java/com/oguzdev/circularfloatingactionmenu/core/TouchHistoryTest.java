@@ -0,0 +1,88 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchHistoryTest {
+
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void keepsTheNewestSamplesOldestFirst() {
+        final TouchHistory history = new TouchHistory(3);
+        for(int i = 0; i < 5; i++) {
+            history.add(i, -i, i * 10);
+        }
+        assertEquals(3, history.size());
+        for(int i = 0; i < 3; i++) {
+            assertEquals(i + 2, history.getX(i), DELTA);
+            assertEquals(-(i + 2), history.getY(i), DELTA);
+            assertEquals((i + 2) * 10, history.getTime(i));
+        }
+    }
+
+    @Test
+    public void ignoresSamplesOlderThanTheNewestOne() {
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        history.add(1, 1, 20);
+        history.add(2, 2, 10);
+        history.add(3, 3, 20);
+        assertEquals(2, history.size());
+        assertEquals(3, history.getX(1), DELTA);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void clearRemovesAllSamples() {
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        history.add(1, 1, 0);
+        history.clear();
+        assertEquals(0, history.size());
+        history.getX(0);
+    }
+
+    @Test
+    public void velocityOfALineIsItsSlope() {
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        for(int t = 0; t <= 80; t += 8) {
+            history.add(100 + 2 * t, 50 - 0.5f * t, t);
+        }
+        final float[] velocity = new float[2];
+        assertTrue(history.getVelocity(50, velocity));
+        assertEquals(2, velocity[0], DELTA);
+        assertEquals(-0.5f, velocity[1], DELTA);
+    }
+
+    @Test
+    public void velocityIgnoresSamplesOutsideTheWindow() {
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        // Fast at first, then still
+        history.add(0, 0, 0);
+        history.add(100, 0, 10);
+        history.add(100, 0, 50);
+        history.add(100, 0, 60);
+        final float[] velocity = new float[2];
+        assertTrue(history.getVelocity(20, velocity));
+        assertEquals(0, velocity[0], DELTA);
+        assertTrue(history.getVelocity(60, velocity));
+        assertTrue(velocity[0] > 0);
+    }
+
+    @Test
+    public void velocityNeedsTwoSamplesAtDifferentTimes() {
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        final float[] velocity = {1, 1};
+        assertFalse(history.getVelocity(50, velocity));
+        history.add(0, 0, 10);
+        assertFalse(history.getVelocity(50, velocity));
+        history.add(10, 10, 10);
+        assertFalse(history.getVelocity(50, velocity));
+        assertEquals(0, velocity[0], DELTA);
+        assertEquals(0, velocity[1], DELTA);
+    }
+}
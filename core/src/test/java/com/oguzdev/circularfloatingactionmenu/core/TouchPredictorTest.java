@@ -0,0 +1,151 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchPredictorTest {
+
+    private static final float DELTA = 1e-3f;
+    /** the interval of the samples, as with a 120 Hz touch screen */
+    private static final int SAMPLE_INTERVAL = 8;
+    private static final int SAMPLE_COUNT = 30;
+    /** acceleration of the accelerating stream, in pixels per square millisecond */
+    private static final float ACCELERATION = 0.01f;
+
+    @Test
+    public void constantVelocityIsPredictedExactly() {
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        final float[] predicted = new float[2];
+        for(int i = 0; i < SAMPLE_COUNT; i++) {
+            final int t = i * SAMPLE_INTERVAL;
+            history.add(1.5f * t, 200 - 0.75f * t, t);
+            // A single sample has no velocity yet
+            if(i > 0) {
+                assertTrue(predictor.predict(history, predicted));
+                final long ahead = t + TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS;
+                assertEquals(1.5f * ahead, predicted[0], DELTA);
+                assertEquals(200 - 0.75f * ahead, predicted[1], DELTA);
+            }
+        }
+        assertTrue(predictor.getErrorCount() > 0);
+        assertEquals(0, predictor.getMeanError(), DELTA);
+        assertEquals(0, predictor.getMaxError(), DELTA);
+    }
+
+    @Test
+    public void accelerationIsPredictedBetterThanTheLastSample() {
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        feedAcceleratingStream(predictor, history);
+
+        assertTrue(predictor.getErrorCount() > 0);
+        // A linear fit lags behind an accelerating finger
+        assertTrue(predictor.getMeanError() > 0);
+        assertTrue(predictor.getMaxError() >= predictor.getMeanError());
+        // but stays closer than the newest sample, which is what is tracked without prediction
+        final long last = (SAMPLE_COUNT - 1) * SAMPLE_INTERVAL;
+        final float lagWithoutPrediction = position(last + TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS) - position(last);
+        assertTrue(predictor.getMaxError() < lagWithoutPrediction);
+    }
+
+    @Test
+    public void resetKeepsTheStatistics() {
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        feedAcceleratingStream(predictor, history);
+        final float meanError = predictor.getMeanError();
+        final float maxError = predictor.getMaxError();
+        final int errorCount = predictor.getErrorCount();
+
+        predictor.reset();
+        assertEquals(meanError, predictor.getMeanError(), 0);
+        assertEquals(maxError, predictor.getMaxError(), 0);
+        assertEquals(errorCount, predictor.getErrorCount());
+
+        // The prediction of the previous gesture is not compared with the next one
+        history.clear();
+        history.add(5000, 5000, 10000);
+        final float[] predicted = new float[2];
+        assertTrue(predictor.predict(history, predicted));
+        assertEquals(errorCount, predictor.getErrorCount());
+        assertEquals(maxError, predictor.getMaxError(), 0);
+    }
+
+    @Test
+    public void resetErrorStatisticsClearsThem() {
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        feedAcceleratingStream(predictor, new TouchHistory(TouchHistory.DEFAULT_CAPACITY));
+        predictor.resetErrorStatistics();
+        assertEquals(0, predictor.getErrorCount());
+        assertEquals(0, predictor.getMeanError(), 0);
+        assertEquals(0, predictor.getMaxError(), 0);
+    }
+
+    @Test
+    public void emptyHistoryIsNotPredicted() {
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        assertFalse(predictor.predict(new TouchHistory(TouchHistory.DEFAULT_CAPACITY), new float[2]));
+    }
+
+    @Test
+    public void singleSampleIsPredictedInPlace() {
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        history.add(30, 40, 100);
+        final float[] predicted = new float[2];
+        assertTrue(predictor.predict(history, predicted));
+        assertEquals(30, predicted[0], 0);
+        assertEquals(40, predicted[1], 0);
+    }
+
+    /**
+     * A fast move towards an edge is predicted past the allowed area, so the floating view clamps it
+     * to its move limit like the touch position itself.
+     */
+    @Test
+    public void predictionBeyondTheMoveLimitIsClamped() {
+        final int limitLeft = 0;
+        final int limitRight = 1000;
+        final TouchPredictor predictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        final TouchHistory history = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        final float[] predicted = new float[2];
+        for(int t = 0; t <= 40; t += SAMPLE_INTERVAL) {
+            history.add(800 + 5 * t, 500, t);
+            predictor.predict(history, predicted);
+        }
+        assertTrue(predicted[0] > limitRight);
+        assertEquals(limitRight, EdgeGeometry.clamp((int) predicted[0], limitLeft, limitRight));
+
+        history.clear();
+        predictor.reset();
+        for(int t = 0; t <= 40; t += SAMPLE_INTERVAL) {
+            history.add(200 - 5 * t, 500, t);
+            predictor.predict(history, predicted);
+        }
+        assertTrue(predicted[0] < limitLeft);
+        assertEquals(limitLeft, EdgeGeometry.clamp((int) predicted[0], limitLeft, limitRight));
+    }
+
+    private static void feedAcceleratingStream(TouchPredictor predictor, TouchHistory history) {
+        final float[] predicted = new float[2];
+        for(int i = 0; i < SAMPLE_COUNT; i++) {
+            final long t = i * SAMPLE_INTERVAL;
+            history.add(position(t), 100, t);
+            predictor.predict(history, predicted);
+        }
+    }
+
+    /**
+     * @return the x of a finger that starts at rest and accelerates uniformly
+     */
+    private static float position(long t) {
+        return ACCELERATION * t * t / 2;
+    }
+}
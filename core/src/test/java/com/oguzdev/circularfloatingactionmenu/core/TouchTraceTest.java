@@ -0,0 +1,132 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes traces with {@link TouchTraceWriter} and reads them back with {@link TouchTraceReader}.
+ */
+public class TouchTraceTest {
+
+    private static final int ACTION_DOWN = 0;
+    private static final int ACTION_UP = 1;
+    private static final int ACTION_MOVE = 2;
+    /** a source id that does not fit in a byte */
+    private static final int LARGE_SOURCE = 300;
+
+    @Test
+    public void eventsRoundTrip() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final TouchTraceWriter writer = new TouchTraceWriter(bytes);
+        writer.beginEvent(LARGE_SOURCE, ACTION_DOWN, 10000, 10000, -40.5f, -60.25f, 1);
+        writer.writeSample(10000, 140.5f, 260.25f);
+        // A move with two batched samples, oldest first
+        writer.beginEvent(LARGE_SOURCE, ACTION_MOVE, 10032, 10000, -41, -61, 3);
+        writer.writeSample(10016, 150, 270);
+        writer.writeSample(10024, 155, 275);
+        writer.writeSample(10032, 160, 280);
+        writer.beginEvent(7, ACTION_UP, 10040, 10000, -42, -62, 1);
+        writer.writeSample(10040, 161, 281);
+        assertEquals(3, writer.getEventCount());
+        writer.close();
+
+        final TouchTraceReader reader = new TouchTraceReader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(reader.next());
+        assertEquals(LARGE_SOURCE, reader.getSource());
+        assertEquals(ACTION_DOWN, reader.getAction());
+        // Times are relative to the first event
+        assertEquals(0, reader.getEventTime());
+        assertEquals(0, reader.getDownTime());
+        assertEquals(-40.5f, reader.getLocalOffsetX(), 0);
+        assertEquals(-60.25f, reader.getLocalOffsetY(), 0);
+        assertEquals(1, reader.getSampleCount());
+        assertEquals(0, reader.getSampleTime(0));
+        assertEquals(140.5f, reader.getSampleX(0), 0);
+        assertEquals(260.25f, reader.getSampleY(0), 0);
+
+        assertTrue(reader.next());
+        assertEquals(LARGE_SOURCE, reader.getSource());
+        assertEquals(ACTION_MOVE, reader.getAction());
+        assertEquals(32, reader.getEventTime());
+        assertEquals(0, reader.getDownTime());
+        assertEquals(-41, reader.getLocalOffsetX(), 0);
+        assertEquals(-61, reader.getLocalOffsetY(), 0);
+        assertEquals(3, reader.getSampleCount());
+        final long[] times = {16, 24, 32};
+        final float[] xs = {150, 155, 160};
+        final float[] ys = {270, 275, 280};
+        for(int i = 0; i < 3; i++) {
+            assertEquals(times[i], reader.getSampleTime(i));
+            assertEquals(xs[i], reader.getSampleX(i), 0);
+            assertEquals(ys[i], reader.getSampleY(i), 0);
+        }
+
+        assertTrue(reader.next());
+        assertEquals(7, reader.getSource());
+        assertEquals(ACTION_UP, reader.getAction());
+        assertEquals(40, reader.getEventTime());
+        assertEquals(1, reader.getSampleCount());
+        assertEquals(161, reader.getSampleX(0), 0);
+
+        assertFalse(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void manySamplesRoundTrip() throws IOException {
+        final int sampleCount = 100;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final TouchTraceWriter writer = new TouchTraceWriter(bytes);
+        writer.beginEvent(Integer.MAX_VALUE, ACTION_MOVE, 5000, 4000, 0, 0, sampleCount);
+        for(int i = 0; i < sampleCount; i++) {
+            writer.writeSample(4901 + i, i, -i);
+        }
+        writer.close();
+
+        final TouchTraceReader reader = new TouchTraceReader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(reader.next());
+        assertEquals(Integer.MAX_VALUE, reader.getSource());
+        assertEquals(-1000, reader.getDownTime());
+        assertEquals(sampleCount, reader.getSampleCount());
+        for(int i = 0; i < sampleCount; i++) {
+            assertEquals(-99 + i, reader.getSampleTime(i));
+            assertEquals(i, reader.getSampleX(i), 0);
+            assertEquals(-i, reader.getSampleY(i), 0);
+        }
+        assertFalse(reader.next());
+    }
+
+    @Test(expected = IOException.class)
+    public void otherStreamsAreRejected() throws IOException {
+        new TouchTraceReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 0, 1}));
+    }
+
+    @Test(expected = IOException.class)
+    public void otherVersionsAreRejected() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(TouchTraceWriter.MAGIC);
+        output.writeShort(1);
+        output.close();
+        new TouchTraceReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingSamplesAreRejected() throws IOException {
+        final TouchTraceWriter writer = new TouchTraceWriter(new ByteArrayOutputStream());
+        writer.beginEvent(0, ACTION_MOVE, 0, 0, 0, 0, 2);
+        writer.writeSample(0, 0, 0);
+        writer.beginEvent(0, ACTION_UP, 0, 0, 0, 0, 1);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ViewportTest {
+
+    @Test
+    public void itemsInsideOrOverlappingIntersect() {
+        final Viewport viewport = new Viewport();
+        viewport.set(0, 0, 100, 200);
+        assertTrue(viewport.intersects(10, 10, 20, 20));
+        assertTrue(viewport.intersects(-10, -10, 20, 20));
+        assertTrue(viewport.intersects(90, 190, 20, 20));
+        assertTrue(viewport.intersects(-50, -50, 300, 300));
+    }
+
+    @Test
+    public void itemsOutsideDoNotIntersect() {
+        final Viewport viewport = new Viewport();
+        viewport.set(0, 0, 100, 200);
+        assertFalse(viewport.intersects(-30, 10, 20, 20));
+        assertFalse(viewport.intersects(10, -30, 20, 20));
+        assertFalse(viewport.intersects(110, 10, 20, 20));
+        assertFalse(viewport.intersects(10, 210, 20, 20));
+    }
+
+    @Test
+    public void edgesAreExclusive() {
+        final Viewport viewport = new Viewport();
+        viewport.set(0, 0, 100, 200);
+        assertFalse(viewport.intersects(-20, 10, 20, 20));
+        assertFalse(viewport.intersects(10, -20, 20, 20));
+        assertFalse(viewport.intersects(100, 10, 20, 20));
+        assertFalse(viewport.intersects(10, 200, 20, 20));
+        assertTrue(viewport.intersects(-19, 10, 20, 20));
+        assertTrue(viewport.intersects(99, 199, 20, 20));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.os.SystemClock;
+
+import com.oguzdev.circularfloatingactionmenu.core.AnimationClock;
+
+/**
+ * The single place where the Handler-driven animations of this library read the time.
+ * By default it is {@link SystemClock#uptimeMillis()}, the time base of the main Looper.
+ */
+public final class AnimationClocks {
+
+    /** The default clock, which returns {@link SystemClock#uptimeMillis()} */
+    public static final AnimationClock SYSTEM = new AnimationClock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+    };
+
+    private static AnimationClock clock = SYSTEM;
+
+    private AnimationClocks() {
+    }
+
+    /**
+     * Replaces the clock. Animations that are already running read the new clock from their next frame on,
+     * so it should be installed while no animation is running.
+     * @param clock the new clock, or null to restore {@link #SYSTEM}
+     */
+    public static void setClock(AnimationClock clock) {
+        AnimationClocks.clock = clock != null ? clock : SYSTEM;
+    }
+
+    public static AnimationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the current time of the installed clock, in milliseconds
+     */
+    public static long uptimeMillis() {
+        return clock.uptimeMillis();
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Point;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+
+import com.oguzdev.circularfloatingactionmenu.core.DialLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns the arc of a {@link FloatingActionMenu} into a dial that scrolls over the items of a
+ * {@link FloatingActionMenu.DialAdapter}. The menu only has one item per slot on the arc plus a small buffer,
+ * and these items are rebound to other list positions as the dial is rotated by a drag,
+ * so the number of views and the cost of each frame do not depend on the size of the list.
+ * This class must only be used from the main thread.
+ */
+class DialController {
+
+    /** duration of the animation that aligns the items with the slots after a drag, in milliseconds */
+    private static final int SNAP_DURATION = 150;
+    /** a list position that no slot view can show, used to force rebinding */
+    private static final int NO_POSITION = Integer.MIN_VALUE;
+
+    private final FloatingActionMenu.DialAdapter adapter;
+    private final int visibleSlotCount;
+    private final int slotCount;
+    /** the list position each slot view is currently bound to */
+    private final int[] boundPositions;
+    private final DragListener dragListener;
+    private FloatingActionMenu menu;
+    /** the number of items of the adapter when it was last asked */
+    private int count;
+    /** the list position shown in the first visible slot, fractional while the dial is being rotated */
+    private float offset;
+    /** the signed angle (in degrees) between two slots, as of the last positioning of the items */
+    private float slotAngle;
+    private ValueAnimator snapAnimator;
+
+    /**
+     * @param adapter provides the items of the list
+     * @param visibleSlotCount the number of items shown on the arc at a time
+     */
+    DialController(FloatingActionMenu.DialAdapter adapter, int visibleSlotCount) {
+        if(visibleSlotCount < 1) {
+            throw new IllegalArgumentException("A dial needs at least one visible slot: " + visibleSlotCount);
+        }
+        this.adapter = adapter;
+        this.visibleSlotCount = visibleSlotCount;
+        this.slotCount = DialLayout.getSlotCount(visibleSlotCount);
+        this.boundPositions = new int[slotCount];
+        Arrays.fill(boundPositions, NO_POSITION);
+        this.dragListener = new DragListener();
+        this.count = adapter.getCount();
+    }
+
+    /**
+     * Creates a view for each slot and adds it to the items of the menu.
+     * @param context the context to create the views with
+     * @param items the list that receives the items, which must be empty
+     */
+    void createItems(Context context, List<FloatingActionMenu.Item> items) {
+        if(!items.isEmpty()) {
+            throw new IllegalStateException("A dial menu takes its items from its adapter only.");
+        }
+        for(int i = 0; i < slotCount; i++) {
+            final View view = adapter.createView(context);
+            view.setOnTouchListener(dragListener);
+            // The size will be measured off-screen when the menu is built
+            items.add(new FloatingActionMenu.Item(view, 0, 0));
+        }
+    }
+
+    void setMenu(FloatingActionMenu menu) {
+        this.menu = menu;
+    }
+
+    /**
+     * Binds the slot views that show another list position than before, fades the ones beyond the ends of the arc,
+     * and calculates the center of each of them.
+     * @param center the center of the arc
+     * @param radius the radius of the arc
+     * @param startAngle the angle (in degrees) the arc starts from
+     * @param endAngle the angle (in degrees) the arc ends at
+     * @param out receives x and y of each slot view as consecutive pairs
+     */
+    void calculatePositions(Point center, int radius, int startAngle, int endAngle, float[] out) {
+        slotAngle = DialLayout.getSlotAngle(startAngle, endAngle, visibleSlotCount);
+        final int firstPosition = DialLayout.getFirstPosition(offset);
+        final List<FloatingActionMenu.Item> items = menu.getSubActionItems();
+        for(int i = 0; i < slotCount; i++) {
+            final int position = DialLayout.getPosition(i, firstPosition, slotCount);
+            final View view = items.get(i).view;
+            if(position != boundPositions[i]) {
+                boundPositions[i] = position;
+                if(position >= 0 && position < count) {
+                    adapter.bindView(view, position);
+                }
+            }
+            // Beyond the ends of the list or a whole slot beyond the ends of the arc
+            final float alpha = DialLayout.getSlotAlpha(position, offset, count, visibleSlotCount);
+            view.setVisibility(alpha > 0 ? View.VISIBLE : View.INVISIBLE);
+            view.setAlpha(alpha);
+            final double angle = Math.toRadians(DialLayout.getAngle(startAngle, slotAngle, position, offset));
+            out[i * 2] = (float) (center.x + radius * Math.cos(angle));
+            out[i * 2 + 1] = (float) (center.y + radius * Math.sin(angle));
+        }
+    }
+
+    /**
+     * @return the list position shown in the first visible slot, which may be fractional
+     */
+    float getOffset() {
+        return offset;
+    }
+
+    /**
+     * Rotates the dial. The offset is limited to the ends of the list.
+     * The items are repositioned right away if the menu is open.
+     * @param offset the list position to show in the first visible slot
+     */
+    void setOffset(float offset) {
+        final float clamped = DialLayout.clampOffset(offset, count, visibleSlotCount);
+        if(clamped == this.offset) {
+            return;
+        }
+        this.offset = clamped;
+        menu.updateItemPositions();
+    }
+
+    /**
+     * Reads the number of items from the adapter again and rebinds all the slot views.
+     */
+    void notifyDataSetChanged() {
+        stopSnapping();
+        count = adapter.getCount();
+        Arrays.fill(boundPositions, NO_POSITION);
+        offset = DialLayout.clampOffset(offset, count, visibleSlotCount);
+        menu.updateItemPositions();
+    }
+
+    /**
+     * Rotates the dial to the nearest slot.
+     */
+    private void snap() {
+        final float target = DialLayout.clampOffset(Math.round(offset), count, visibleSlotCount);
+        if(target == offset) {
+            return;
+        }
+        snapAnimator = ValueAnimator.ofFloat(offset, target);
+        snapAnimator.setDuration(SNAP_DURATION);
+        snapAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                setOffset((Float) animation.getAnimatedValue());
+            }
+        });
+        snapAnimator.start();
+    }
+
+    private void stopSnapping() {
+        if(snapAnimator != null) {
+            snapAnimator.cancel();
+            snapAnimator = null;
+        }
+    }
+
+    /**
+     * Rotates the dial while a slot view is dragged around the center of the menu.
+     * A touch that does not move further than the touch slop is left to the slot view, so it is still clicked.
+     */
+    private class DragListener implements View.OnTouchListener {
+
+        /** the center of the menu on the screen */
+        private final int[] center = new int[2];
+        private float downX;
+        private float downY;
+        private float lastAngle;
+        private boolean dragging;
+
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            switch(event.getActionMasked()) {
+                case MotionEvent.ACTION_DOWN:
+                    dragging = false;
+                    downX = event.getRawX();
+                    downY = event.getRawY();
+                    return false;
+                case MotionEvent.ACTION_MOVE:
+                    if(!dragging) {
+                        if(!startDragging(v, event)) {
+                            return false;
+                        }
+                    }
+                    final float angle = getAngle(event);
+                    if(slotAngle != 0) {
+                        // Items follow the finger, so the list moves the other way round
+                        setOffset(offset - DialLayout.getAngleDelta(lastAngle, angle) / slotAngle);
+                    }
+                    lastAngle = angle;
+                    return true;
+                case MotionEvent.ACTION_UP:
+                case MotionEvent.ACTION_CANCEL:
+                    if(dragging) {
+                        dragging = false;
+                        snap();
+                        return true;
+                    }
+                    return false;
+                default:
+                    return dragging;
+            }
+        }
+
+        /**
+         * Starts rotating the dial once the touch has moved far enough, and takes the touch away from the slot view.
+         * @return whether the dial is being rotated
+         */
+        private boolean startDragging(View v, MotionEvent event) {
+            if(menu.getState() != FloatingActionMenu.State.OPEN) {
+                return false;
+            }
+            final int touchSlop = ViewConfiguration.get(v.getContext()).getScaledTouchSlop();
+            final float dx = event.getRawX() - downX;
+            final float dy = event.getRawY() - downY;
+            if(dx * dx + dy * dy < touchSlop * touchSlop) {
+                return false;
+            }
+            dragging = true;
+            stopSnapping();
+            // The slot view must not be pressed or clicked any more
+            final MotionEvent cancel = MotionEvent.obtain(event);
+            cancel.setAction(MotionEvent.ACTION_CANCEL);
+            v.onTouchEvent(cancel);
+            cancel.recycle();
+            final ViewParent parent = v.getParent();
+            if(parent != null) {
+                parent.requestDisallowInterceptTouchEvent(true);
+            }
+            final View mainActionView = menu.getMainActionView();
+            mainActionView.getLocationOnScreen(center);
+            center[0] += mainActionView.getWidth() / 2;
+            center[1] += mainActionView.getHeight() / 2;
+            lastAngle = getAngle(event);
+            return true;
+        }
+
+        /**
+         * @return the angle (in degrees) of the touch around the center of the menu
+         */
+        private float getAngle(MotionEvent event) {
+            return (float) Math.toDegrees(Math.atan2(event.getRawY() - center[1], event.getRawX() - center[0]));
+        }
+    }
+}
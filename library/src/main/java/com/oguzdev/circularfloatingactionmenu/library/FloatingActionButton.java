@@ -13,6 +13,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
+import android.widget.ImageView;
 
 /**
  * An alternative Floating Action Button implementation that can be independently placed in
@@ -207,7 +208,7 @@ public class FloatingActionButton extends FrameLayout {
     }
 
     public WindowManager getWindowManager() {
-        return (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        return WindowManagers.get(getContext());
     }
 
     private void setBackgroundResource(Drawable drawable) {
@@ -232,6 +233,8 @@ public class FloatingActionButton extends FrameLayout {
         private View contentView;
         private LayoutParams contentParams;
         private boolean systemOverlay;
+        /** the icon to show instead of a content view, or 0 */
+        private int contentIconResId;
 
         public Builder(Context context) {
             this.context = context;
@@ -278,6 +281,20 @@ public class FloatingActionButton extends FrameLayout {
         public Builder setContentView(View contentView, LayoutParams contentParams) {
             this.contentView = contentView;
             this.contentParams = contentParams;
+            this.contentIconResId = 0;
+            return this;
+        }
+
+        /**
+         * Shows an icon as the content of the button.
+         * The icon is decoded in the background at the size of the content area by the shared {@link IconLoader}.
+         * @param resId the resource id of the icon
+         * @return the builder object itself
+         */
+        public Builder setContentIcon(int resId) {
+            this.contentView = null;
+            this.contentParams = null;
+            this.contentIconResId = resId;
             return this;
         }
 
@@ -287,6 +304,22 @@ public class FloatingActionButton extends FrameLayout {
         }
 
         public FloatingActionButton build() {
+            if(contentIconResId != 0) {
+                final int buttonSize = context.getResources().getDimensionPixelSize(R.dimen.action_button_size);
+                final int margin = context.getResources().getDimensionPixelSize(R.dimen.action_button_content_margin);
+                final int iconWidth = (layoutParams.width > 0 ? layoutParams.width : buttonSize) - 2 * margin;
+                final int iconHeight = (layoutParams.height > 0 ? layoutParams.height : buttonSize) - 2 * margin;
+                final ImageView icon = new ImageView(context);
+                IconLoader.getInstance(context).load(icon, contentIconResId, iconWidth, iconHeight);
+                return new FloatingActionButton(context,
+                                               layoutParams,
+                                               theme,
+                                               backgroundDrawable,
+                                               position,
+                                               icon,
+                                               new LayoutParams(iconWidth, iconHeight, Gravity.CENTER),
+                        systemOverlay);
+            }
             return new FloatingActionButton(context,
                                            layoutParams,
                                            theme,
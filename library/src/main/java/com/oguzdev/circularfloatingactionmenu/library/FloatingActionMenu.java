@@ -5,22 +5,32 @@ package com.oguzdev.circularfloatingactionmenu.library;
 
 import android.app.Activity;
 import android.content.Context;
-import android.graphics.Path;
-import android.graphics.PathMeasure;
+import android.content.res.Resources;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.graphics.Rect;
-import android.graphics.RectF;
 import android.hardware.SensorManager;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
 import android.view.Display;
 import android.view.Gravity;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.OrientationEventListener;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 
+import com.oguzdev.circularfloatingactionmenu.core.ArcLayout;
+import com.oguzdev.circularfloatingactionmenu.core.OverlayBounds;
+import com.oguzdev.circularfloatingactionmenu.core.RingLayout;
+import com.oguzdev.circularfloatingactionmenu.core.Viewport;
 import com.oguzdev.circularfloatingactionmenu.library.animation.DefaultAnimationHandler;
 import com.oguzdev.circularfloatingactionmenu.library.animation.MenuAnimationHandler;
 
@@ -33,6 +43,13 @@ import java.util.List;
 
 public class FloatingActionMenu {
 
+    /** No command is waiting for the current transition to finish */
+    private static final int COMMAND_NONE = 0;
+    /** An opening is waiting for the current transition to finish */
+    private static final int COMMAND_OPEN = 1;
+    /** A closing is waiting for the current transition to finish */
+    private static final int COMMAND_CLOSE = 2;
+
     /** Reference to the view (usually a button) to trigger the menu to show */
     private View mainActionView;
     /** The angle (in degrees, modulus 360) which the circular menu starts from  */
@@ -47,14 +64,49 @@ public class FloatingActionMenu {
     private MenuAnimationHandler animationHandler;
     /** Reference to a listener that listens open/close actions */
     private MenuStateChangeListener stateChangeListener;
+    /** Reference to a listener that is notified of every state change, including the end of transitions */
+    private MenuTransitionListener transitionListener;
     /** whether the openings and closings should be animated or not */
     private boolean animated;
-    /** whether the menu is currently open or not */
-    private boolean open;
+    /** the current state of the menu */
+    private State state;
+    /** the command requested while a transition was running, one of the COMMAND constants */
+    private int pendingCommand;
+    /** whether the pending command should be animated */
+    private boolean pendingAnimated;
     /** whether the menu is an overlay for all other activities */
     private boolean systemOverlay;
     /** a simple layout to contain all the sub action views in the system overlay mode */
     private FrameLayout overlayContainer;
+    /** the group that makes sure only one of its menus is open at a time, if any */
+    private MenuGroup menuGroup;
+
+    /** the click listener that is set on the main action view while the menu is attached to it */
+    private final ActionViewClickListener actionViewClickListener;
+    /** whether pressing the main action view opens the menu and releasing over an item selects it */
+    private boolean pressDragSelectionEnabled;
+    /** the touch listener that is set on the main action view while press-drag selection is enabled */
+    private final PressDragSelector pressDragSelector;
+    /** whether the items should follow the main action view automatically while the menu is open */
+    private boolean anchorTrackingEnabled;
+    /** observes the main action view while the menu is open, if anchor tracking is enabled */
+    private final AnchorTracker anchorTracker;
+    /** records the performance of each opening and closing while a metrics listener is set */
+    private final MenuMetricsTracker metricsTracker;
+    /** reusable x, y pairs of the item centers on the arc */
+    private float[] itemPositions;
+    /** reusable bounds of the items, used to size the overlay container */
+    private final OverlayBounds overlayBounds;
+    /** reusable visible area of the window the items are added to, used to cull the items outside of it */
+    private final Viewport viewport;
+    /** whether the items that do not fit on the arc are placed on further rings */
+    private boolean multiRingLayoutEnabled;
+    /** binds the items to the list positions shown on the arc in the dial mode, or null */
+    private DialController dialController;
+    /** the child menus of the items that have been expanded at least once, created on first use */
+    private MenuGroup subMenuGroup;
+    /** the menu whose item is the main action view of this one, or null. An overlay child shares its container */
+    private final FloatingActionMenu parentMenu;
 
     private OrientationEventListener orientationListener;
 
@@ -77,7 +129,25 @@ public class FloatingActionMenu {
                               boolean animated,
                               MenuStateChangeListener stateChangeListener,
                               final boolean systemOverlay) {
-        this.mainActionView = mainActionView;
+        this(mainActionView, startAngle, endAngle, radius, subActionItems, animationHandler, animated,
+                stateChangeListener, systemOverlay, null);
+    }
+
+    /**
+     * Constructor of a child menu, whose main action view is an item of the parent menu.
+     * A system overlay child adds its items to the overlay container of the parent.
+     * @param parentMenu the menu that owns the main action view, or null
+     */
+    FloatingActionMenu(final View mainActionView,
+                       int startAngle,
+                       int endAngle,
+                       int radius,
+                       List<Item> subActionItems,
+                       MenuAnimationHandler animationHandler,
+                       boolean animated,
+                       MenuStateChangeListener stateChangeListener,
+                       final boolean systemOverlay,
+                       FloatingActionMenu parentMenu) {
         this.startAngle = startAngle;
         this.endAngle = endAngle;
         this.radius = radius;
@@ -85,46 +155,58 @@ public class FloatingActionMenu {
         this.animationHandler = animationHandler;
         this.animated = animated;
         this.systemOverlay = systemOverlay;
+        this.parentMenu = parentMenu;
         // The menu is initially closed.
-        this.open = false;
+        this.state = State.CLOSED;
+        this.pendingCommand = COMMAND_NONE;
 
         this.stateChangeListener = stateChangeListener;
 
-        // Listen click events on the main action view
-        // In the future, touch and drag events could be listened to offer an alternative behaviour
-        this.mainActionView.setClickable(true);
-        this.mainActionView.setOnClickListener(new ActionViewClickListener());
+        if(systemOverlay && mainActionView == null) {
+            throw new RuntimeException("A system overlay menu has to be attached to a main action view.");
+        }
+
+        // Listen click events on the main action view, and touch events if press-drag selection is enabled
+        this.actionViewClickListener = new ActionViewClickListener();
+        this.pressDragSelector = new PressDragSelector();
+        this.anchorTracker = new AnchorTracker();
+        this.metricsTracker = new MenuMetricsTracker();
+        this.itemPositions = new float[subActionItems.size() * 2];
+        this.overlayBounds = new OverlayBounds();
+        this.viewport = new Viewport();
+        attachTo(mainActionView);
+
+        // Items with a child menu build it when they are clicked for the first time
+        for(int i = 0; i < subActionItems.size(); i++) {
+            final Item item = subActionItems.get(i);
+            if(item.subMenuProvider != null) {
+                item.view.setOnClickListener(new SubMenuClickListener(item));
+            }
+        }
 
         // Do not forget to set the menu as self to our customizable animation handler
         if(animationHandler != null) {
             animationHandler.setMenu(this);
         }
 
-        if(systemOverlay) {
+        if(isSharingOverlayContainer()) {
+            // The main action view is inside the window of the parent, so the items go there too
+            overlayContainer = parentMenu.getOverlayContainer();
+        }
+        else if(systemOverlay) {
             overlayContainer = new FrameLayout(mainActionView.getContext());
         }
         else {
             overlayContainer = null; // beware NullPointerExceptions!
         }
 
-        // Find items with undefined sizes
-        for(final Item item : subActionItems) {
-            if(item.width == 0 || item.height == 0) {
-                if(systemOverlay) {
-                    throw new RuntimeException("Sub action views cannot be added without " +
-                            "definite width and height.");
-                }
-                // Figure out the size by temporarily adding it to the Activity content view hierarchy
-                // and ask the size from the system
-                addViewToCurrentContainer(item.view);
-                // Make item view invisible, just in case
-                item.view.setAlpha(0);
-                // Wait for the right time
-                item.view.post(new ItemViewQueueListener(item));
-            }
-        }
+        // Find items with undefined sizes and measure them all at once, off-screen
+        measureUnsizedItems(mainActionView != null
+                ? mainActionView.getResources().getDisplayMetrics()
+                : Resources.getSystem().getDisplayMetrics());
 
-        if(systemOverlay) {
+        // A child in the container of its parent is closed together with the parent
+        if(systemOverlay && !isSharingOverlayContainer()) {
             orientationListener = new OrientationEventListener(mainActionView.getContext(), SensorManager.SENSOR_DELAY_UI) {
                 private int lastState = -1;
 
@@ -150,10 +232,37 @@ public class FloatingActionMenu {
      * @param animated if true, this action is executed by the current {@link MenuAnimationHandler}
      */
     public void open(boolean animated) {
+        PerfTrace.beginSection("FloatingActionMenu.open");
+        try {
+            openImpl(animated);
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void openImpl(boolean animated) {
+        if(mainActionView == null) {
+            throw new IllegalStateException("FloatingActionMenu cannot open without a main action view. " +
+                    "Please attach it to a view first.");
+        }
+        if(state == State.OPENING || state == State.CLOSING) {
+            // Wait until the running transition finishes
+            enqueue(COMMAND_OPEN, animated);
+            return;
+        }
+        if(state == State.OPEN) {
+            return;
+        }
+        // A menu without items has nothing to animate, and its transition would never finish
+        final boolean animate = animated && animationHandler != null && !subActionItems.isEmpty();
+        metricsTracker.begin(MenuMetrics.INTERACTION_OPEN);
 
         // Get the center of the action view from the following function for efficiency
         // populate destination x,y coordinates of Items
         Point center = calculateItemPositions();
+        // Items that would end up outside the window are neither attached nor animated
+        cullItems();
 
         WindowManager.LayoutParams overlayParams = null;
 
@@ -165,14 +274,18 @@ public class FloatingActionMenu {
             overlayParams = (WindowManager.LayoutParams) overlayContainer.getLayoutParams();
         }
 
-        if(animated && animationHandler != null) {
+        if(animate) {
             // If animations are enabled and we have a MenuAnimationHandler, let it do the heavy work
             if(animationHandler.isAnimating()) {
                 // Do not proceed if there is an animation currently going on.
+                metricsTracker.cancel();
                 return;
             }
 
             for (int i = 0; i < subActionItems.size(); i++) {
+                if(subActionItems.get(i).culled) {
+                    continue;
+                }
                 // It is required that these Item views are not currently added to any parent
                 // Because they are supposed to be added to the Activity content view,
                 // just before the animation starts
@@ -198,6 +311,9 @@ public class FloatingActionMenu {
         else {
             // If animations are disabled, just place each of the items to their calculated destination positions.
             for (int i = 0; i < subActionItems.size(); i++) {
+                if(subActionItems.get(i).culled) {
+                    continue;
+                }
                 // This is currently done by giving them large margins
 
                 final FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(subActionItems.get(i).width, subActionItems.get(i).height, Gravity.TOP | Gravity.LEFT);
@@ -214,13 +330,25 @@ public class FloatingActionMenu {
                 addViewToCurrentContainer(subActionItems.get(i).view, params);
             }
         }
-        // do not forget to specify that the menu is open.
-        open = true;
+        // Let the group close the menu that was open before this one
+        if(menuGroup != null) {
+            menuGroup.onMenuOpening(this, animated);
+        }
+        // do not forget to specify that the menu is open, or is opening until the animation finishes.
+        setState(animate ? State.OPENING : State.OPEN);
+
+        if(anchorTrackingEnabled) {
+            anchorTracker.start(mainActionView);
+        }
 
         if(stateChangeListener != null) {
             stateChangeListener.onMenuOpened(this);
         }
 
+        // An animated opening is reported when its transition finishes
+        if(!animate) {
+            metricsTracker.end();
+        }
     }
 
     /**
@@ -228,10 +356,36 @@ public class FloatingActionMenu {
      * @param animated if true, this action is executed by the current {@link MenuAnimationHandler}
      */
     public void close(boolean animated) {
+        PerfTrace.beginSection("FloatingActionMenu.close");
+        try {
+            closeImpl(animated);
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void closeImpl(boolean animated) {
+        if(state == State.OPENING || state == State.CLOSING) {
+            // Wait until the running transition finishes
+            enqueue(COMMAND_CLOSE, animated);
+            return;
+        }
+        if(state == State.CLOSED) {
+            return;
+        }
+        // The items of an open child menu are placed around the items of this one, so close it too
+        if(subMenuGroup != null) {
+            subMenuGroup.closeOpenMenu(animated);
+        }
+        // A menu without items has nothing to animate, and its transition would never finish
+        final boolean animate = animated && animationHandler != null && !subActionItems.isEmpty();
+        metricsTracker.begin(MenuMetrics.INTERACTION_CLOSE);
         // If animations are enabled and we have a MenuAnimationHandler, let it do the heavy work
-        if(animated && animationHandler != null) {
+        if(animate) {
             if(animationHandler.isAnimating()) {
                 // Do not proceed if there is an animation currently going on.
+                metricsTracker.cancel();
                 return;
             }
             animationHandler.animateMenuClosing(getActionViewCenter());
@@ -239,16 +393,30 @@ public class FloatingActionMenu {
         else {
             // If animations are disabled, just detach each of the Item views from the Activity content view.
             for (int i = 0; i < subActionItems.size(); i++) {
-                removeViewFromCurrentContainer(subActionItems.get(i).view);
+                if(!subActionItems.get(i).culled) {
+                    removeViewFromCurrentContainer(subActionItems.get(i).view);
+                }
             }
-            detachOverlayContainer();
+            if(systemOverlay) {
+                detachOverlayContainer();
+            }
+        }
+        // do not forget to specify that the menu is now closed, or is closing until the animation finishes.
+        setState(animate ? State.CLOSING : State.CLOSED);
+        anchorTracker.stop();
+
+        if(menuGroup != null) {
+            menuGroup.onMenuClosed(this);
         }
-        // do not forget to specify that the menu is now closed.
-        open = false;
 
         if(stateChangeListener != null) {
             stateChangeListener.onMenuClosed(this);
         }
+
+        // An animated closing is reported when its transition finishes
+        if(!animate) {
+            metricsTracker.end();
+        }
     }
 
     /**
@@ -256,7 +424,7 @@ public class FloatingActionMenu {
      * @param animated if true, the open/close action is executed by the current {@link MenuAnimationHandler}
      */
     public void toggle(boolean animated) {
-        if(open) {
+        if(isHeadingOpen()) {
             close(animated);
         }
         else {
@@ -265,10 +433,128 @@ public class FloatingActionMenu {
     }
 
     /**
-     * @return whether the menu is open or not
+     * @return whether the menu is open or opening
      */
     public boolean isOpen() {
-        return open;
+        return state == State.OPEN || state == State.OPENING;
+    }
+
+    /**
+     * @return the current state of the menu
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Completes the running transition. Must be called by the {@link MenuAnimationHandler}
+     * exactly once when the last animation of an opening or a closing ends, even if it was cancelled;
+     * {@link MenuAnimationHandler.LastAnimationListener} does this automatically.
+     * An open or close requested while the transition was running is executed afterwards.
+     */
+    public void onTransitionFinished() {
+        if(state == State.OPENING) {
+            setState(State.OPEN);
+        }
+        else if(state == State.CLOSING) {
+            setState(State.CLOSED);
+            if(isSharingOverlayContainer()) {
+                // The animation handler only detaches an empty container, and the items of the parent are still in it
+                detachOverlayContainer();
+            }
+        }
+        else {
+            return;
+        }
+        metricsTracker.end();
+        if(state == State.OPEN) {
+            anchorTracker.onTransitionFinished();
+        }
+
+        final int command = pendingCommand;
+        pendingCommand = COMMAND_NONE;
+        if(command == COMMAND_OPEN) {
+            open(pendingAnimated);
+        }
+        else if(command == COMMAND_CLOSE) {
+            close(pendingAnimated);
+        }
+    }
+
+    /**
+     * Ends the running transition right away, and drops the command queued for its end.
+     * A transition whose animations cannot be cancelled is completed without waiting for them.
+     */
+    private void endTransition() {
+        if(state == State.CLOSING && pendingCommand == COMMAND_OPEN && menuGroup != null) {
+            // The group was told that this menu would open again
+            menuGroup.onMenuClosed(this);
+        }
+        pendingCommand = COMMAND_NONE;
+        if(state != State.OPENING && state != State.CLOSING) {
+            return;
+        }
+        if(animationHandler != null) {
+            animationHandler.cancelAnimations();
+        }
+        if(state == State.CLOSING) {
+            // The animations were not started by MenuAnimationHandler.startAnimation, take the items away from them
+            for(int i = 0; i < subActionItems.size(); i++) {
+                if(!subActionItems.get(i).culled) {
+                    removeViewFromCurrentContainer(subActionItems.get(i).view);
+                }
+            }
+            if(systemOverlay && overlayContainer.getParent() != null) {
+                detachOverlayContainer();
+            }
+        }
+        // Does nothing if the cancelled animations have completed it already
+        onTransitionFinished();
+    }
+
+    /**
+     * Keeps a command for the end of the running transition. Only the last request counts,
+     * and a request for the state the transition already leads to cancels the pending one,
+     * so that e.g. close and open during an opening add no transition at all.
+     * @param command COMMAND_OPEN or COMMAND_CLOSE
+     * @param animated whether the command should be animated
+     */
+    private void enqueue(int command, boolean animated) {
+        final boolean opening = state == State.OPENING;
+        if((command == COMMAND_OPEN) == opening) {
+            pendingCommand = COMMAND_NONE;
+        }
+        else {
+            pendingCommand = command;
+            pendingAnimated = animated;
+        }
+        // The group has already let go of a closing menu, so it must hear about an opening queued by it
+        if(menuGroup != null && state == State.CLOSING) {
+            if(pendingCommand == COMMAND_OPEN) {
+                menuGroup.onMenuOpening(this, animated);
+            }
+            else {
+                menuGroup.onMenuClosed(this);
+            }
+        }
+    }
+
+    /**
+     * @return whether the menu will be open once the running transition and the pending command are done
+     */
+    boolean isHeadingOpen() {
+        if(pendingCommand != COMMAND_NONE) {
+            return pendingCommand == COMMAND_OPEN;
+        }
+        return isOpen();
+    }
+
+    private void setState(State state) {
+        final State previousState = this.state;
+        this.state = state;
+        if(transitionListener != null) {
+            transitionListener.onMenuStateChanged(this, previousState, state);
+        }
     }
 
     /**
@@ -282,23 +568,169 @@ public class FloatingActionMenu {
         return overlayContainer;
     }
 
+    /**
+     * Moves the whole menu to another main action view, without reconstructing its items
+     * or its animation handler. A running opening or closing is ended right away,
+     * the menu is closed immediately if it is open, and the previous main action view stops listening for clicks.
+     * This makes it possible to share a single menu between recycled views, such as list rows.
+     * @param actionView the new main action view, or null to detach the menu
+     */
+    public void attachTo(View actionView) {
+        if(actionView == mainActionView) {
+            return;
+        }
+        // The animations and the queued command still need the current main action view
+        endTransition();
+        if(isOpen()) {
+            close(false);
+        }
+        if(mainActionView != null) {
+            mainActionView.setOnClickListener(null);
+            if(pressDragSelectionEnabled) {
+                mainActionView.setOnTouchListener(null);
+            }
+        }
+        mainActionView = actionView;
+        if(mainActionView != null) {
+            mainActionView.setClickable(true);
+            mainActionView.setOnClickListener(actionViewClickListener);
+            if(pressDragSelectionEnabled) {
+                mainActionView.setOnTouchListener(pressDragSelector);
+            }
+        }
+        // The window manager of an overlay menu is found through its main action view
+        if(orientationListener != null) {
+            if(mainActionView != null) {
+                orientationListener.enable();
+            }
+            else {
+                orientationListener.disable();
+            }
+        }
+    }
+
+    /**
+     * Detaches the menu from its current main action view.
+     * The menu can be attached to another view later by {@link #attachTo(View)}.
+     */
+    public void detach() {
+        attachTo(null);
+    }
+
+    /**
+     * Enables or disables automatic anchor tracking.
+     * When enabled, the menu observes the main action view on every frame while it is open
+     * and repositions its items only if the view has actually moved on the screen,
+     * so that there is no need to call {@link #updateItemPositions()} on scroll or layout changes.
+     * The observer is removed as soon as the menu closes.
+     * @param enabled true to enable anchor tracking
+     */
+    public void setAnchorTrackingEnabled(boolean enabled) {
+        anchorTrackingEnabled = enabled;
+        if(!enabled) {
+            anchorTracker.stop();
+        }
+        else if(isOpen()) {
+            anchorTracker.start(mainActionView);
+        }
+    }
+
+    /**
+     * Enables or disables press-drag selection. When enabled, pressing the main action view opens the menu,
+     * dragging highlights the item in the direction of the finger, and releasing performs a click on that item
+     * and closes the menu. Releasing anywhere else closes the menu, and a tap without dragging toggles it as usual.
+     * The item is found from the angle of the finger around the main action view alone,
+     * so it is not available together with the multi-ring layout or the dial mode.
+     * @param enabled true to enable press-drag selection
+     */
+    public void setPressDragSelectionEnabled(boolean enabled) {
+        if(enabled && (multiRingLayoutEnabled || dialController != null)) {
+            throw new IllegalStateException("Press-drag selection needs the items on a single arc.");
+        }
+        if(enabled == pressDragSelectionEnabled) {
+            return;
+        }
+        pressDragSelectionEnabled = enabled;
+        if(mainActionView != null) {
+            mainActionView.setOnTouchListener(enabled ? pressDragSelector : null);
+        }
+    }
+
+    /**
+     * @return whether pressing the main action view opens the menu and releasing over an item selects it
+     */
+    public boolean isPressDragSelectionEnabled() {
+        return pressDragSelectionEnabled;
+    }
+
+    /**
+     * @return whether the items follow the main action view automatically
+     */
+    public boolean isAnchorTrackingEnabled() {
+        return anchorTrackingEnabled;
+    }
+
+    /**
+     * @return the view that the menu is currently attached to, or null
+     */
+    public View getMainActionView() {
+        return mainActionView;
+    }
+
     /**
      * Recalculates the positions of each sub action item on demand.
      */
     public void updateItemPositions() {
+        PerfTrace.beginSection("FloatingActionMenu.updateItemPositions");
+        try {
+            updateItemPositionsImpl();
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void updateItemPositionsImpl() {
         // Only update if the menu is currently open
         if(!isOpen()) {
             return;
         }
         // recalculate x,y coordinates of Items
         calculateItemPositions();
+        // Items can only be attached or detached while none of them is animating,
+        // and the overlay container keeps the size it was given when the menu opened
+        final boolean recull = state == State.OPEN && !systemOverlay;
+        if(recull) {
+            cullItems();
+        }
+        // Items of a system overlay menu are placed inside the overlay container
+        int originX = 0;
+        int originY = 0;
+        if(systemOverlay) {
+            final WindowManager.LayoutParams overlayParams = (WindowManager.LayoutParams) overlayContainer.getLayoutParams();
+            originX = overlayParams.x;
+            originY = overlayParams.y;
+        }
 
         // Simply update layout params for each item
         for (int i = 0; i < subActionItems.size(); i++) {
+            final Item item = subActionItems.get(i);
+            if(item.culled) {
+                if(recull && item.view.getParent() != null) {
+                    removeViewFromCurrentContainer(item.view);
+                }
+                continue;
+            }
             // This is currently done by giving them large margins
-            final FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(subActionItems.get(i).width, subActionItems.get(i).height, Gravity.TOP | Gravity.LEFT);
-            params.setMargins(subActionItems.get(i).x, subActionItems.get(i).y, 0, 0);
-            subActionItems.get(i).view.setLayoutParams(params);
+            final FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(item.width, item.height, Gravity.TOP | Gravity.LEFT);
+            params.setMargins(item.x - originX, item.y - originY, 0, 0);
+            if(recull && item.view.getParent() == null) {
+                // The item has come into the window
+                addViewToCurrentContainer(item.view, params);
+            }
+            else {
+                item.view.setLayoutParams(params);
+            }
         }
     }
 
@@ -342,36 +774,76 @@ public class FloatingActionMenu {
      * @return getActionViewCenter()
      */
     private Point calculateItemPositions() {
-        // Create an arc that starts from startAngle and ends at endAngle
-        // in an area that is as large as 4*radius^2
-        final Point center = getActionViewCenter();
-        RectF area = new RectF(center.x - radius, center.y - radius, center.x + radius, center.y + radius);
-
-        Path orbit = new Path();
-        orbit.addArc(area, startAngle, endAngle - startAngle);
-
-        PathMeasure measure = new PathMeasure(orbit, false);
+        PerfTrace.beginSection("FloatingActionMenu.calculateItemPositions");
+        try {
+            return calculateItemPositionsImpl();
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
 
-        // Prevent overlapping when it is a full circle
-        int divisor;
-        if(Math.abs(endAngle - startAngle) >= 360 || subActionItems.size() <= 1) {
-            divisor = subActionItems.size();
+    private Point calculateItemPositionsImpl() {
+        // Find points that have the same distance between each other on an arc
+        // that starts from startAngle and ends at endAngle
+        final Point center = getActionViewCenter();
+        final int count = subActionItems.size();
+        if(itemPositions.length < count * 2) {
+            itemPositions = new float[count * 2];
+        }
+        if(dialController != null) {
+            // Only the slots on the arc and their buffer have items
+            dialController.calculatePositions(center, radius, startAngle, endAngle, itemPositions);
+        }
+        else if(multiRingLayoutEnabled) {
+            // The rings are one item apart, so the largest item decides how many items fit on each
+            int itemSize = 0;
+            for(int i=0; i<count; i++) {
+                itemSize = Math.max(itemSize, Math.max(subActionItems.get(i).width, subActionItems.get(i).height));
+            }
+            RingLayout.calculatePositions(center.x, center.y, radius, itemSize, startAngle, endAngle, count, itemPositions);
         }
         else {
-            divisor = subActionItems.size() -1;
+            ArcLayout.calculatePositions(center.x, center.y, radius, startAngle, endAngle, count, itemPositions);
         }
 
-        // Measure this path, in order to find points that have the same distance between each other
-        for(int i=0; i<subActionItems.size(); i++) {
-            float[] coords = new float[] {0f, 0f};
-            measure.getPosTan((i) * measure.getLength() / divisor, coords, null);
+        for(int i=0; i<count; i++) {
             // get the x and y values of these points and set them to each of sub action items.
-            subActionItems.get(i).x = (int) coords[0] - subActionItems.get(i).width / 2;
-            subActionItems.get(i).y = (int) coords[1] - subActionItems.get(i).height / 2;
+            subActionItems.get(i).x = (int) itemPositions[i * 2] - subActionItems.get(i).width / 2;
+            subActionItems.get(i).y = (int) itemPositions[i * 2 + 1] - subActionItems.get(i).height / 2;
         }
         return center;
     }
 
+    /**
+     * Marks the items whose calculated positions are completely outside the visible window as culled.
+     * If all of them are outside, none is culled, so that the menu still has something to show.
+     * Must be called after {@link #calculateItemPositions()}.
+     */
+    private void cullItems() {
+        if(systemOverlay) {
+            final Point screenSize = getScreenSize();
+            viewport.set(0, 0, screenSize.x, screenSize.y - getStatusBarHeight());
+        }
+        else {
+            final View contentView = getActivityContentView();
+            viewport.set(0, 0, contentView.getWidth(), contentView.getHeight());
+        }
+        int visibleCount = 0;
+        for(int i = 0; i < subActionItems.size(); i++) {
+            final Item item = subActionItems.get(i);
+            item.culled = !viewport.intersects(item.x, item.y, item.width, item.height);
+            if(!item.culled) {
+                visibleCount++;
+            }
+        }
+        if(visibleCount == 0) {
+            for(int i = 0; i < subActionItems.size(); i++) {
+                subActionItems.get(i).culled = false;
+            }
+        }
+    }
+
     /**
      * @return the specified raduis of the menu
      */
@@ -379,6 +851,74 @@ public class FloatingActionMenu {
         return radius;
     }
 
+    /**
+     * Enables or disables the multi-ring layout. When enabled, the items that do not fit
+     * on the arc without overlapping are placed on further arcs, each one item size away from the previous one.
+     * The number of rings follows from the radius and the size of the largest item.
+     * A menu whose items all fit on the arc looks the same either way.
+     * The change is applied the next time the items are positioned.
+     * @param enabled true to enable the multi-ring layout
+     */
+    public void setMultiRingLayoutEnabled(boolean enabled) {
+        if(enabled && pressDragSelectionEnabled) {
+            throw new IllegalStateException("Press-drag selection needs the items on a single arc.");
+        }
+        multiRingLayoutEnabled = enabled;
+    }
+
+    /**
+     * @return whether the items that do not fit on the arc are placed on further rings
+     */
+    public boolean isMultiRingLayoutEnabled() {
+        return multiRingLayoutEnabled;
+    }
+
+    /**
+     * Sets the dial of this menu. Use {@link Builder#setDialAdapter(DialAdapter, int)} instead.
+     * @param dialController the dial that has created the items of this menu
+     */
+    void setDialController(DialController dialController) {
+        this.dialController = dialController;
+        dialController.setMenu(this);
+    }
+
+    /**
+     * @return whether this menu is a dial over the items of a {@link DialAdapter}
+     */
+    public boolean isDial() {
+        return dialController != null;
+    }
+
+    /**
+     * @return the list position shown in the first slot of the dial
+     */
+    public int getDialPosition() {
+        return Math.round(requireDial().getOffset());
+    }
+
+    /**
+     * Rotates the dial without animation, so that the given list position is shown in its first slot,
+     * or as close to it as the ends of the list allow.
+     * @param position a list position of the {@link DialAdapter}
+     */
+    public void scrollDialTo(int position) {
+        requireDial().setOffset(position);
+    }
+
+    /**
+     * Must be called when the items of the {@link DialAdapter} change, so that the visible slots are bound again.
+     */
+    public void notifyDialDataSetChanged() {
+        requireDial().notifyDataSetChanged();
+    }
+
+    private DialController requireDial() {
+        if(dialController == null) {
+            throw new IllegalStateException("This menu has no dial adapter.");
+        }
+        return dialController;
+    }
+
     /**
      * @return a reference to the sub action items list
      */
@@ -404,7 +944,7 @@ public class FloatingActionMenu {
      * @return the WindowManager for the current context.
      */
     public WindowManager getWindowManager() {
-        return (WindowManager) mainActionView.getContext().getSystemService(Context.WINDOW_SERVICE);
+        return WindowManagers.get(mainActionView.getContext());
     }
 
     private void addViewToCurrentContainer(View view, ViewGroup.LayoutParams layoutParams) {
@@ -429,14 +969,30 @@ public class FloatingActionMenu {
     }
 
     public void attachOverlayContainer() {
+        PerfTrace.beginSection("FloatingActionMenu.attachOverlayContainer");
+        try {
+            attachOverlayContainerImpl();
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void attachOverlayContainerImpl() {
+        if(isSharingOverlayContainer()) {
+            parentMenu.fitOverlayContainer(this);
+            return;
+        }
         try {
             WindowManager.LayoutParams overlayParams = calculateOverlayContainerParams();
 
             overlayContainer.setLayoutParams(overlayParams);
             if(overlayContainer.getParent() == null) {
                 getWindowManager().addView(overlayContainer, overlayParams);
+                metricsTracker.countAddView();
             }
             getWindowManager().updateViewLayout(mainActionView, mainActionView.getLayoutParams());
+            metricsTracker.countUpdateViewLayout();
         }
         catch(SecurityException e) {
             throw new SecurityException("Your application must have SYSTEM_ALERT_WINDOW " +
@@ -447,34 +1003,117 @@ public class FloatingActionMenu {
     private WindowManager.LayoutParams calculateOverlayContainerParams() {
         // calculate the minimum viable size of overlayContainer
         WindowManager.LayoutParams overlayParams = getDefaultSystemWindowParams();
-        int left = 9999, right = 0, top = 9999, bottom = 0;
-        for(int i=0; i < subActionItems.size(); i++) {
-            int lm = subActionItems.get(i).x;
-            int tm = subActionItems.get(i).y;
+        overlayBounds.reset();
+        includeItems(overlayBounds);
+        return toOverlayContainerParams(overlayParams);
+    }
 
-            if(lm < left) {
-                left = lm;
-            }
-            if(tm < top) {
-                top = tm;
+    /**
+     * Adds the items of this menu that are not culled to the bounds.
+     */
+    private void includeItems(OverlayBounds bounds) {
+        for(int i=0; i < subActionItems.size(); i++) {
+            final Item item = subActionItems.get(i);
+            if(item.culled) {
+                continue;
             }
-            if(lm + subActionItems.get(i).width > right) {
-                right = lm + subActionItems.get(i).width;
+            bounds.include(item.x, item.y, item.width, item.height);
+        }
+    }
+
+    /**
+     * Adds the items of this menu and of the child menus that share the overlay container to the bounds,
+     * if they are in the container.
+     * @param openingMenu a menu whose items are about to be added to the container, or null
+     */
+    private void includeSharedItems(OverlayBounds bounds, FloatingActionMenu openingMenu) {
+        if(this == openingMenu) {
+            includeItems(bounds);
+        }
+        else {
+            for(int i = 0; i < subActionItems.size(); i++) {
+                final Item item = subActionItems.get(i);
+                if(item.view.getParent() == overlayContainer) {
+                    bounds.include(item.x, item.y, item.width, item.height);
+                }
             }
-            if(tm + subActionItems.get(i).height > bottom) {
-                bottom = tm + subActionItems.get(i).height;
+        }
+        for(int i = 0; i < subActionItems.size(); i++) {
+            final FloatingActionMenu subMenu = subActionItems.get(i).subMenu;
+            if(subMenu != null && subMenu.isSharingOverlayContainer()) {
+                subMenu.includeSharedItems(bounds, openingMenu);
             }
         }
-        overlayParams.width = right - left;
-        overlayParams.height = bottom - top;
-        overlayParams.x = left;
-        overlayParams.y = top;
+    }
+
+    /**
+     * Places the overlay container over the current overlay bounds.
+     */
+    private WindowManager.LayoutParams toOverlayContainerParams(WindowManager.LayoutParams overlayParams) {
+        overlayParams.width = overlayBounds.width();
+        overlayParams.height = overlayBounds.height();
+        overlayParams.x = overlayBounds.left;
+        overlayParams.y = overlayBounds.top;
         overlayParams.gravity = Gravity.TOP | Gravity.LEFT;
         return overlayParams;
     }
 
     public void detachOverlayContainer() {
+        if(isSharingOverlayContainer()) {
+            parentMenu.fitOverlayContainer(null);
+            return;
+        }
         getWindowManager().removeView(overlayContainer);
+        metricsTracker.countRemoveView();
+    }
+
+    /**
+     * Resizes the overlay container, which is a window of this menu, to the union of the items of this menu
+     * and of the child menus that share it, and removes it once none of them shows any items.
+     * The views already inside keep their place on the screen.
+     * @param openingMenu a child menu that is about to add its items, or null if one has closed
+     */
+    private void fitOverlayContainer(FloatingActionMenu openingMenu) {
+        if(isSharingOverlayContainer()) {
+            parentMenu.fitOverlayContainer(openingMenu);
+            return;
+        }
+        if(overlayContainer.getParent() == null) {
+            if(openingMenu != null) {
+                throw new IllegalStateException("A child menu of a system overlay menu can only open " +
+                        "while its parent is open.");
+            }
+            // The last items have been removed, and the container with them
+            return;
+        }
+        if(openingMenu == null && overlayContainer.getChildCount() == 0) {
+            detachOverlayContainer();
+            return;
+        }
+        final WindowManager.LayoutParams previousParams = (WindowManager.LayoutParams) overlayContainer.getLayoutParams();
+        overlayBounds.reset();
+        includeSharedItems(overlayBounds, openingMenu);
+        final WindowManager.LayoutParams overlayParams = toOverlayContainerParams(getDefaultSystemWindowParams());
+        // Move the views by the opposite of the move of the container
+        final int dx = previousParams.x - overlayParams.x;
+        final int dy = previousParams.y - overlayParams.y;
+        for(int i = 0; i < overlayContainer.getChildCount(); i++) {
+            final View view = overlayContainer.getChildAt(i);
+            final FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) view.getLayoutParams();
+            params.leftMargin += dx;
+            params.topMargin += dy;
+            view.setLayoutParams(params);
+        }
+        overlayContainer.setLayoutParams(overlayParams);
+        getWindowManager().updateViewLayout(overlayContainer, overlayParams);
+        metricsTracker.countUpdateViewLayout();
+    }
+
+    /**
+     * @return whether this is a system overlay child menu that adds its items to the container of its parent
+     */
+    private boolean isSharingOverlayContainer() {
+        return systemOverlay && parentMenu != null && parentMenu.isSystemOverlay();
     }
 
     public int getStatusBarHeight() {
@@ -513,6 +1152,110 @@ public class FloatingActionMenu {
         this.stateChangeListener = listener;
     }
 
+    /**
+     * Sets a listener that is notified of every state change, e.g. when an animated opening
+     * actually completes rather than when it starts.
+     * @param listener the listener, or null to remove it
+     */
+    public void setTransitionListener(MenuTransitionListener listener) {
+        this.transitionListener = listener;
+    }
+
+    /**
+     * Sets a listener that receives the {@link MenuMetrics} of every opening and closing,
+     * including the time from the click to the first frame and the frames of the animation.
+     * @param listener the listener, or null to stop collecting metrics
+     */
+    public void setMetricsListener(MenuMetricsListener listener) {
+        metricsTracker.setListener(listener);
+    }
+
+    /**
+     * Custom {@link MenuAnimationHandler}s that talk to the WindowManager should count their calls here.
+     * The interaction ends with {@link #onTransitionFinished()}.
+     * @return the tracker that collects the metrics of this menu
+     */
+    public MenuMetricsTracker getMetricsTracker() {
+        return metricsTracker;
+    }
+
+    /**
+     * Sets the group of this menu. Use {@link MenuGroup#add(FloatingActionMenu)} instead.
+     * @param menuGroup the group, or null to leave the current group
+     */
+    void setMenuGroup(MenuGroup menuGroup) {
+        if(this.menuGroup != null && this.menuGroup != menuGroup) {
+            this.menuGroup.onMenuClosed(this);
+        }
+        this.menuGroup = menuGroup;
+    }
+
+    /**
+     * @return the group of this menu, or null if it does not belong to one
+     */
+    public MenuGroup getMenuGroup() {
+        return menuGroup;
+    }
+
+    /**
+     * @return the child menu of this menu that is currently open, or null
+     */
+    public FloatingActionMenu getOpenSubMenu() {
+        return subMenuGroup != null ? subMenuGroup.getOpenMenu() : null;
+    }
+
+    /**
+     * Builds the child menu of an item around the item view.
+     * The child shares the animation setting, anchor tracking and the metrics listener
+     * of this menu, and belongs to a group that keeps only one child open at a time.
+     * Its items are added to the same content view, or overlay container, as the items of this menu.
+     * @param item the item that owns the child menu
+     * @return the child menu
+     */
+    private FloatingActionMenu createSubMenu(Item item) {
+        if(subMenuGroup == null) {
+            subMenuGroup = new MenuGroup();
+        }
+        final Builder builder = item.subMenuProvider.onCreateSubMenu(this, item);
+        if(animated) {
+            builder.enableAnimations();
+        }
+        else {
+            builder.disableAnimations();
+        }
+        if(anchorTrackingEnabled) {
+            builder.enableAnchorTracking();
+        }
+        return builder.setSystemOverlay(systemOverlay)
+                .setParentMenu(this)
+                .setMetricsListener(metricsTracker.getListener())
+                .setMenuGroup(subMenuGroup)
+                .attachTo(item.view)
+                .build();
+    }
+
+    /**
+     * Builds the child menu of an item on its first click, and opens it.
+     * Attaching the child menu replaces this listener with the click listener of the child,
+     * so later clicks toggle the child menu directly.
+     */
+    private class SubMenuClickListener implements View.OnClickListener {
+
+        private final Item item;
+
+        SubMenuClickListener(Item item) {
+            this.item = item;
+        }
+
+        @Override
+        public void onClick(View v) {
+            if(item.subMenu == null) {
+                item.subMenu = createSubMenu(item);
+            }
+            item.subMenu.toggle(animated);
+        }
+    }
+
     /**
      * A simple click listener used by the main action view
      */
@@ -525,35 +1268,215 @@ public class FloatingActionMenu {
     }
 
     /**
-     * This runnable calculates sizes of Item views that are added to the menu.
+     * Opens the menu when the main action view is pressed, and selects the item in the direction of the finger
+     * when it is released. The item is found by mapping the angle of the finger straight to a sector of the arc,
+     * so no item view is hit-tested while the finger moves.
      */
-    private class ItemViewQueueListener implements Runnable {
+    private class PressDragSelector implements View.OnTouchListener {
+
+        /** the center of the main action view on the screen */
+        private final int[] center = new int[2];
+        private float downX;
+        private float downY;
+        /** whether the menu was open when the main action view was pressed */
+        private boolean wasOpen;
+        /** whether the finger has moved further than the touch slop */
+        private boolean dragging;
+        /** the highlighted item, or null */
+        private Item selectedItem;
 
-        private static final int MAX_TRIES = 10;
-        private Item item;
-        private int tries;
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            switch(event.getActionMasked()) {
+                case MotionEvent.ACTION_DOWN:
+                    downX = event.getRawX();
+                    downY = event.getRawY();
+                    dragging = false;
+                    v.getLocationOnScreen(center);
+                    center[0] += v.getWidth() / 2;
+                    center[1] += v.getHeight() / 2;
+                    final ViewParent parent = v.getParent();
+                    if(parent != null) {
+                        parent.requestDisallowInterceptTouchEvent(true);
+                    }
+                    v.setPressed(true);
+                    wasOpen = isHeadingOpen();
+                    if(!wasOpen) {
+                        open(animated);
+                    }
+                    return true;
+                case MotionEvent.ACTION_MOVE:
+                    if(!dragging) {
+                        final int touchSlop = ViewConfiguration.get(v.getContext()).getScaledTouchSlop();
+                        final float dx = event.getRawX() - downX;
+                        final float dy = event.getRawY() - downY;
+                        dragging = dx * dx + dy * dy >= touchSlop * touchSlop;
+                    }
+                    if(dragging) {
+                        select(findItem(v, event));
+                    }
+                    return true;
+                case MotionEvent.ACTION_UP:
+                    v.setPressed(false);
+                    final Item item = dragging ? findItem(v, event) : null;
+                    select(null);
+                    if(item != null) {
+                        item.view.performClick();
+                        // The item may have opened its own child menu, which must stay open
+                        if(getOpenSubMenu() == null) {
+                            close(animated);
+                        }
+                    }
+                    else if(dragging || wasOpen) {
+                        // Released over nothing, or tapped an open menu
+                        close(animated);
+                    }
+                    return true;
+                case MotionEvent.ACTION_CANCEL:
+                    v.setPressed(false);
+                    select(null);
+                    return true;
+                default:
+                    return true;
+            }
+        }
 
-        public ItemViewQueueListener(Item item) {
-            this.item = item;
-            this.tries = 0;
+        /**
+         * @return the item in the direction of the finger, or null if the finger is still over the main action view
+         */
+        private Item findItem(View v, MotionEvent event) {
+            final int index = ArcLayout.getItemIndexAt(event.getRawX() - center[0], event.getRawY() - center[1],
+                    Math.min(v.getWidth(), v.getHeight()) / 2, Float.MAX_VALUE,
+                    startAngle, endAngle, subActionItems.size());
+            if(index < 0) {
+                return null;
+            }
+            final Item item = subActionItems.get(index);
+            return item.culled ? null : item;
+        }
+
+        /**
+         * Moves the highlight to another item.
+         * @param item the item to highlight, or null to remove the highlight
+         */
+        private void select(Item item) {
+            if(item == selectedItem) {
+                return;
+            }
+            if(selectedItem != null) {
+                selectedItem.view.setPressed(false);
+            }
+            selectedItem = item;
+            if(item != null) {
+                item.view.setPressed(true);
+            }
+        }
+    }
+
+    /**
+     * Observes the main action view before each frame is drawn and repositions the items
+     * when the screen location of the view differs from the cached one.
+     */
+    private class AnchorTracker implements ViewTreeObserver.OnPreDrawListener {
+
+        /** the location on screen of the observed view when items were last positioned */
+        private final int[] lastLocation = new int[2];
+        /** a reusable array for the current location on screen */
+        private final int[] location = new int[2];
+        private View observedView;
+        /** whether a move of the observed view was seen while the items were being animated */
+        private boolean changeSkipped;
+
+        void start(View view) {
+            stop();
+            changeSkipped = false;
+            view.getLocationOnScreen(lastLocation);
+            view.getViewTreeObserver().addOnPreDrawListener(this);
+            observedView = view;
+        }
+
+        void stop() {
+            if(observedView == null) {
+                return;
+            }
+            ViewTreeObserver observer = observedView.getViewTreeObserver();
+            if(observer.isAlive()) {
+                observer.removeOnPreDrawListener(this);
+            }
+            observedView = null;
         }
 
         @Override
-        public void run() {
-            // Wait until the the view can be measured but do not push too hard.
-            if(item.view.getMeasuredWidth() == 0 && tries < MAX_TRIES) {
-                item.view.post(this);
+        public boolean onPreDraw() {
+            if(observedView == null) {
+                return true;
+            }
+            observedView.getLocationOnScreen(location);
+            if(location[0] == lastLocation[0] && location[1] == lastLocation[1]) {
+                return true;
+            }
+            // Do not fight with the animation, the change is picked up when the transition finishes
+            if(animationHandler != null && animationHandler.isAnimating()) {
+                changeSkipped = true;
+                return true;
+            }
+            lastLocation[0] = location[0];
+            lastLocation[1] = location[1];
+            updateItemPositions();
+            return true;
+        }
+
+        /**
+         * Positions the items again if the observed view moved during the transition,
+         * since no further frame may be drawn to pick the change up.
+         */
+        void onTransitionFinished() {
+            if(observedView == null || !changeSkipped) {
                 return;
             }
-            // Measure the size of the item view
-            item.width = item.view.getMeasuredWidth();
-            item.height = item.view.getMeasuredHeight();
+            changeSkipped = false;
+            observedView.getLocationOnScreen(lastLocation);
+            updateItemPositions();
+        }
+    }
+
+    /**
+     * Measures every item that was added without a definite size in a single pass.
+     * Each view is measured with explicit MeasureSpecs derived from its own LayoutParams,
+     * so it never has to be attached to the Activity content view or the overlay container.
+     * @param metrics display metrics used as the upper bound for wrap_content items
+     */
+    private void measureUnsizedItems(DisplayMetrics metrics) {
+        for(int i = 0; i < subActionItems.size(); i++) {
+            final Item item = subActionItems.get(i);
+            if(item.width == 0 || item.height == 0) {
+                measureItem(item, metrics.widthPixels, metrics.heightPixels);
+            }
+        }
+    }
+
+    /**
+     * Measures the view of the given item off-screen and stores its size in the item.
+     * @param item the item to measure
+     * @param maxWidth the maximum width of a wrap_content or match_parent item
+     * @param maxHeight the maximum height of a wrap_content or match_parent item
+     */
+    static void measureItem(Item item, int maxWidth, int maxHeight) {
+        final ViewGroup.LayoutParams lp = item.view.getLayoutParams();
+        final int width = lp != null ? lp.width : ViewGroup.LayoutParams.WRAP_CONTENT;
+        final int height = lp != null ? lp.height : ViewGroup.LayoutParams.WRAP_CONTENT;
+        item.view.measure(getItemMeasureSpec(width, maxWidth), getItemMeasureSpec(height, maxHeight));
+        item.width = item.view.getMeasuredWidth();
+        item.height = item.view.getMeasuredHeight();
+    }
 
-            // Revert everything back to normal
-            item.view.setAlpha(item.alpha);
-            // Remove the item view from view hierarchy
-            removeViewFromCurrentContainer(item.view);
+    private static int getItemMeasureSpec(int size, int maxSize) {
+        if(size >= 0) {
+            return View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY);
         }
+        // Both wrap_content and match_parent are bounded by the display,
+        // since the item is not laid out inside a real parent yet.
+        return View.MeasureSpec.makeMeasureSpec(maxSize, View.MeasureSpec.AT_MOST);
     }
 
     /**
@@ -569,6 +1492,17 @@ public class FloatingActionMenu {
 
         public View view;
 
+        /**
+         * whether the item is outside the visible window, in which case it is not attached
+         * and must be skipped by the {@link MenuAnimationHandler}
+         */
+        public boolean culled;
+
+        /** creates the child menu of this item, or null if the item is a leaf */
+        public SubMenuProvider subMenuProvider;
+        /** the child menu of this item, which is null until the item is clicked for the first time */
+        public FloatingActionMenu subMenu;
+
         public Item(View view, int width, int height) {
             this.view = view;
             this.width = width;
@@ -581,17 +1515,78 @@ public class FloatingActionMenu {
 
     /**
      * A listener to listen open/closed state changes of the Menu
+     * It is called as soon as an opening or closing starts; use a {@link MenuTransitionListener}
+     * to know when it is complete.
      */
     public static interface MenuStateChangeListener {
         public void onMenuOpened(FloatingActionMenu menu);
         public void onMenuClosed(FloatingActionMenu menu);
     }
 
+    /**
+     * The states of a menu. An animated opening or closing stays in OPENING or CLOSING
+     * until its animation finishes.
+     */
+    public static enum State {CLOSED, OPENING, OPEN, CLOSING}
+
+    /**
+     * A listener that is notified of every state change of the Menu
+     */
+    public static interface MenuTransitionListener {
+        public void onMenuStateChanged(FloatingActionMenu menu, State previousState, State state);
+    }
+
+    /**
+     * Creates the child menu of an item. It is called only when the item is clicked for the first time,
+     * so nested menus cost nothing until they are used.
+     */
+    public static interface SubMenuProvider {
+        /**
+         * @param parent the menu that owns the item
+         * @param item the item that is expanded; the child menu is attached to its view
+         * @return a builder with the items, the angles and the radius of the child menu.
+         * The main action view, the display mode and the group are set by the parent.
+         */
+        public Builder onCreateSubMenu(FloatingActionMenu parent, Item item);
+    }
+
+    /**
+     * Provides the items of a dial menu. Views are created once for the slots of the dial,
+     * and bound to other list positions as the dial is rotated, like the views of a ListView.
+     */
+    public static interface DialAdapter {
+        /**
+         * @return the number of items in the list
+         */
+        public int getCount();
+
+        /**
+         * @param context the context of the menu
+         * @return a new view for a slot, not added to a parent View
+         */
+        public View createView(Context context);
+
+        /**
+         * Shows an item in a slot view, including its click listener.
+         * @param view a view created by {@link #createView(Context)}
+         * @param position the list position of the item
+         */
+        public void bindView(View view, int position);
+    }
+
+    /**
+     * A listener that receives a menu built by {@link Builder#buildAsync(OnMenuBuiltListener)}
+     */
+    public static interface OnMenuBuiltListener {
+        public void onMenuBuilt(FloatingActionMenu menu);
+    }
+
     /**
      * A builder for {@link FloatingActionMenu} in conventional Java Builder format
      */
     public static class Builder {
 
+        private final Context context;
         private int startAngle;
         private int endAngle;
         private int radius;
@@ -601,9 +1596,22 @@ public class FloatingActionMenu {
         private boolean animated;
         private MenuStateChangeListener stateChangeListener;
         private boolean systemOverlay;
+        private FloatingActionMenu parentMenu;
+        private MenuGroup menuGroup;
+        private boolean anchorTrackingEnabled;
+        private boolean multiRingLayoutEnabled;
+        private boolean pressDragSelectionEnabled;
+        private MenuMetricsListener metricsListener;
+        private MenuTransitionListener transitionListener;
+        /** layouts added by {@link #addSubActionViewAsync(int, Context)} that are not inflated yet */
+        private List<PendingLayout> pendingLayouts;
+        private DialAdapter dialAdapter;
+        private int visibleSlotCount;
 
         public Builder(Context context, boolean systemOverlay) {
+            this.context = context;
             subActionItems = new ArrayList<Item>();
+            pendingLayouts = new ArrayList<PendingLayout>();
             // Default settings
             radius = context.getResources().getDimensionPixelSize(R.dimen.action_menu_radius);
             startAngle = 180;
@@ -643,14 +1651,26 @@ public class FloatingActionMenu {
          * @return the builder object itself
          */
         public Builder addSubActionView(View subActionView) {
-            if(systemOverlay) {
-                throw new RuntimeException("Sub action views cannot be added without " +
-                        "definite width and height. Please use " +
-                        "other methods named addSubActionView");
-            }
+            // The size will be measured off-screen when the menu is built
             return this.addSubActionView(subActionView, 0, 0);
         }
 
+        /**
+         * Adds a sub action view that opens a child menu when it is clicked.
+         * The child menu is created by the provider on the first click.
+         * The click listener of the view is used by the menu for this purpose.
+         * The child menu of a system overlay menu is a system overlay menu too.
+         * @param subActionView the view of the item
+         * @param subMenuProvider creates the child menu
+         * @return the builder object itself
+         */
+        public Builder addSubActionView(View subActionView, SubMenuProvider subMenuProvider) {
+            final Item item = new Item(subActionView, 0, 0);
+            item.subMenuProvider = subMenuProvider;
+            subActionItems.add(item);
+            return this;
+        }
+
         /**
          * Inflates a new view from the specified resource id and adds it as a sub action view.
          * @param resId the resource id reference for the view
@@ -664,6 +1684,37 @@ public class FloatingActionMenu {
             return this.addSubActionView(view, view.getMeasuredWidth(), view.getMeasuredHeight());
         }
 
+        /**
+         * Adds a sub action view that is inflated from the specified resource id later, on a background thread
+         * if the menu is built by {@link #buildAsync(OnMenuBuiltListener)}.
+         * The item keeps its position among the other sub action views.
+         * @param resId the resource id reference for the view
+         * @param context a valid context
+         * @return the builder object itself
+         */
+        public Builder addSubActionViewAsync(int resId, Context context) {
+            pendingLayouts.add(new PendingLayout(subActionItems.size(), resId, LayoutInflater.from(context)));
+            // A placeholder that keeps the order of the items until the view is inflated
+            subActionItems.add(null);
+            return this;
+        }
+
+        /**
+         * Turns the menu into a dial: the arc between the start and the end angle shows a window
+         * of the adapter's list that the user rotates by dragging an item around the main action view.
+         * Only the visible slots and a one-slot buffer at both ends have views, which are rebound as the dial rotates,
+         * so the list can be arbitrarily long. The arc should be shorter than a full circle.
+         * A dial menu cannot have other sub action views.
+         * @param adapter provides the items of the list
+         * @param visibleSlotCount the number of items shown on the arc at a time
+         * @return the builder object itself
+         */
+        public Builder setDialAdapter(DialAdapter adapter, int visibleSlotCount) {
+            this.dialAdapter = adapter;
+            this.visibleSlotCount = visibleSlotCount;
+            return this;
+        }
+
         /**
          * Sets the current animation handler to the specified MenuAnimationHandler child
          * @param animationHandler a MenuAnimationHandler child
@@ -684,16 +1735,89 @@ public class FloatingActionMenu {
             return this;
         }
 
+        /**
+         * Lets the menu follow its main action view automatically while it is open.
+         * @return the builder object itself
+         * @see FloatingActionMenu#setAnchorTrackingEnabled(boolean)
+         */
+        public Builder enableAnchorTracking() {
+            anchorTrackingEnabled = true;
+            return this;
+        }
+
+        /**
+         * Places the items that do not fit on the arc on further rings, for menus with many items.
+         * @return the builder object itself
+         * @see FloatingActionMenu#setMultiRingLayoutEnabled(boolean)
+         */
+        public Builder enableMultiRingLayout() {
+            multiRingLayoutEnabled = true;
+            return this;
+        }
+
+        /**
+         * Opens the menu on press and selects the item under the finger on release.
+         * @return the builder object itself
+         * @see FloatingActionMenu#setPressDragSelectionEnabled(boolean)
+         */
+        public Builder enablePressDragSelection() {
+            pressDragSelectionEnabled = true;
+            return this;
+        }
+
         public Builder setStateChangeListener(MenuStateChangeListener listener) {
             stateChangeListener = listener;
             return this;
         }
 
+        /**
+         * Sets a listener that receives the performance figures of every opening and closing.
+         * @param listener the listener
+         * @return the builder object itself
+         * @see FloatingActionMenu#setMetricsListener(MenuMetricsListener)
+         */
+        public Builder setMetricsListener(MenuMetricsListener listener) {
+            metricsListener = listener;
+            return this;
+        }
+
+        /**
+         * Sets a listener that is notified of every state change of the menu.
+         * @param listener the listener
+         * @return the builder object itself
+         * @see FloatingActionMenu#setTransitionListener(MenuTransitionListener)
+         */
+        public Builder setTransitionListener(MenuTransitionListener listener) {
+            transitionListener = listener;
+            return this;
+        }
+
         public Builder setSystemOverlay(boolean systemOverlay) {
             this.systemOverlay = systemOverlay;
             return this;
         }
 
+        /**
+         * Builds a child menu of the given menu, whose main action view is one of its items.
+         * @param parentMenu the parent menu
+         * @return the builder object itself
+         */
+        Builder setParentMenu(FloatingActionMenu parentMenu) {
+            this.parentMenu = parentMenu;
+            return this;
+        }
+
+        /**
+         * Adds the menu to a {@link MenuGroup} once it is built, so that only one menu
+         * of the group can be open at a time.
+         * @param menuGroup the group to join
+         * @return the builder object itself
+         */
+        public Builder setMenuGroup(MenuGroup menuGroup) {
+            this.menuGroup = menuGroup;
+            return this;
+        }
+
         /**
          * Attaches the whole menu around a main action view, usually a button.
          * All the calculations are made according to this action view.
@@ -710,8 +1834,44 @@ public class FloatingActionMenu {
             return this;
         }
 
+        /**
+         * Inflates and measures the layouts added by {@link #addSubActionViewAsync(int, Context)} on a background thread,
+         * then builds the menu on the main thread and hands it to the listener.
+         * A layout that cannot be inflated or measured off the main thread is handled on the main thread instead.
+         * The builder must not be modified until the listener is called.
+         * @param listener the listener that receives the menu on the main thread
+         */
+        public void buildAsync(final OnMenuBuiltListener listener) {
+            final Handler mainHandler = new Handler(Looper.getMainLooper());
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i = 0; i < pendingLayouts.size(); i++) {
+                        pendingLayouts.get(i).inflateInBackground();
+                    }
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onMenuBuilt(build());
+                        }
+                    });
+                }
+            });
+        }
+
         public FloatingActionMenu build() {
-            return new FloatingActionMenu(actionView,
+            // Inflate the layouts that were not inflated in the background
+            for(int i = 0; i < pendingLayouts.size(); i++) {
+                final PendingLayout layout = pendingLayouts.get(i);
+                subActionItems.set(layout.index, layout.item != null ? layout.item : layout.inflate());
+            }
+            pendingLayouts.clear();
+            DialController dialController = null;
+            if(dialAdapter != null) {
+                dialController = new DialController(dialAdapter, visibleSlotCount);
+                dialController.createItems(context, subActionItems);
+            }
+            FloatingActionMenu menu = new FloatingActionMenu(actionView,
                                           startAngle,
                                           endAngle,
                                           radius,
@@ -719,7 +1879,70 @@ public class FloatingActionMenu {
                                           animationHandler,
                                           animated,
                                           stateChangeListener,
-                                          systemOverlay);
+                                          systemOverlay,
+                                          parentMenu);
+            menu.setAnchorTrackingEnabled(anchorTrackingEnabled);
+            menu.setMultiRingLayoutEnabled(multiRingLayoutEnabled);
+            if(dialController != null) {
+                menu.setDialController(dialController);
+            }
+            menu.setPressDragSelectionEnabled(pressDragSelectionEnabled);
+            menu.setMetricsListener(metricsListener);
+            menu.setTransitionListener(transitionListener);
+            if(menuGroup != null) {
+                menuGroup.add(menu);
+            }
+            return menu;
+        }
+    }
+
+    /**
+     * A sub action layout that has been added to a {@link Builder} but is not inflated yet
+     */
+    private static class PendingLayout {
+
+        /** the position of the item among the sub action items */
+        final int index;
+        final int resId;
+        final LayoutInflater inflater;
+        /** the inflated item, or null if it could not be inflated in the background */
+        Item item;
+
+        PendingLayout(int index, int resId, LayoutInflater inflater) {
+            this.index = index;
+            this.resId = resId;
+            this.inflater = inflater;
+        }
+
+        /**
+         * Inflates the view and measures it off-screen. The size is left undefined if it cannot be measured,
+         * so that the item is measured again when the menu is built.
+         * @return the new item
+         */
+        Item inflate() {
+            final Item newItem = new Item(inflater.inflate(resId, null, false), 0, 0);
+            final DisplayMetrics metrics = newItem.view.getResources().getDisplayMetrics();
+            try {
+                measureItem(newItem, metrics.widthPixels, metrics.heightPixels);
+            }
+            catch(RuntimeException e) {
+                newItem.width = 0;
+                newItem.height = 0;
+            }
+            return newItem;
+        }
+
+        /**
+         * Same as {@link #inflate()}, but leaves the item null instead of failing,
+         * e.g. for views that need a Looper in their constructor.
+         */
+        void inflateInBackground() {
+            try {
+                item = inflate();
+            }
+            catch(RuntimeException e) {
+                item = null;
+            }
         }
     }
 
@@ -0,0 +1,184 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Loads icons of action buttons from bitmap resources, decoded at exactly the size they are displayed at.
+ * Decoding runs on a background executor, and the results are shared through a memory-bounded LRU cache
+ * keyed by resource id and size, so building the same menu again does not decode its icons again.
+ * Resources that are not bitmaps, such as XML drawables, are loaded with {@link Resources#getDrawable(int)} instead.
+ * This class must only be used from the main thread.
+ */
+public class IconLoader {
+
+    private static IconLoader instance;
+
+    private final Resources resources;
+    private final LruCache<String, Bitmap> cache;
+    private final Handler mainHandler;
+    /** the key of the icon each target is waiting for; a target only shows the icon it asked for last */
+    private final WeakHashMap<ImageView, String> pendingTargets;
+    /** keys of the icons that are being decoded, so that each one is decoded only once at a time */
+    private final HashSet<String> decodingKeys;
+
+    /**
+     * @param resources the resources to load the icons from
+     * @param maxCacheBytes the maximum total size of the cached bitmaps, in bytes
+     */
+    public IconLoader(Resources resources, int maxCacheBytes) {
+        this.resources = resources;
+        this.cache = new LruCache<String, Bitmap>(maxCacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.pendingTargets = new WeakHashMap<ImageView, String>();
+        this.decodingKeys = new HashSet<String>();
+    }
+
+    /**
+     * @param context any context, only its application context is kept
+     * @return the loader shared by the whole application, with a cache of 1/32 of the available heap
+     */
+    public static IconLoader getInstance(Context context) {
+        if(instance == null) {
+            instance = new IconLoader(context.getApplicationContext().getResources(),
+                    (int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE));
+        }
+        return instance;
+    }
+
+    /**
+     * Shows the icon in the target, right away if it is cached, or as soon as it is decoded.
+     * The icon is scaled to fit the given size while keeping its aspect ratio.
+     * @param target the view to show the icon in
+     * @param resId the resource id of the icon
+     * @param width the width the icon is displayed at, in pixels
+     * @param height the height the icon is displayed at, in pixels
+     */
+    public void load(ImageView target, final int resId, final int width, final int height) {
+        if(width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("The size of an icon must be positive: " + width + "x" + height);
+        }
+        final String key = resId + ":" + width + "x" + height;
+        final Bitmap cached = cache.get(key);
+        if(cached != null) {
+            pendingTargets.remove(target);
+            target.setImageBitmap(cached);
+            return;
+        }
+        // Do not leave the icon of a previous request in a reused target
+        target.setImageDrawable(null);
+        pendingTargets.put(target, key);
+        if(!decodingKeys.add(key)) {
+            return;
+        }
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = decode(resources, resId, width, height);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDecoded(key, resId, bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops waiting for the icon requested for the target. The decoding itself still completes and is cached.
+     * @param target the view given to {@link #load(ImageView, int, int, int)}
+     */
+    public void cancel(ImageView target) {
+        pendingTargets.remove(target);
+    }
+
+    /**
+     * Removes all icons from the cache, e.g. when the application is asked to trim its memory.
+     */
+    public void clearCache() {
+        cache.evictAll();
+    }
+
+    private void onDecoded(String key, int resId, Bitmap bitmap) {
+        decodingKeys.remove(key);
+        if(bitmap != null) {
+            cache.put(key, bitmap);
+        }
+        final Iterator<Map.Entry<ImageView, String>> iterator = pendingTargets.entrySet().iterator();
+        while(iterator.hasNext()) {
+            final Map.Entry<ImageView, String> entry = iterator.next();
+            if(!key.equals(entry.getValue())) {
+                continue;
+            }
+            iterator.remove();
+            if(bitmap != null) {
+                entry.getKey().setImageBitmap(bitmap);
+            }
+            else {
+                entry.getKey().setImageDrawable(resources.getDrawable(resId));
+            }
+        }
+    }
+
+    /**
+     * Decodes a bitmap resource at the given size. Large bitmaps are subsampled while decoding,
+     * so that no more than twice the needed pixels are ever allocated.
+     * @return the bitmap, or null if the resource is not a bitmap
+     */
+    static Bitmap decode(Resources resources, int resId, int width, int height) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        // The result is scaled to the exact size anyway, so skip the density scaling
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, options);
+        final int sourceWidth = options.outWidth;
+        final int sourceHeight = options.outHeight;
+        if(sourceWidth <= 0 || sourceHeight <= 0) {
+            return null;
+        }
+
+        final float scale = Math.min((float) width / sourceWidth, (float) height / sourceHeight);
+        final int targetWidth = Math.max(1, Math.round(sourceWidth * scale));
+        final int targetHeight = Math.max(1, Math.round(sourceHeight * scale));
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = 1;
+        while(sourceWidth / (options.inSampleSize * 2) >= targetWidth && sourceHeight / (options.inSampleSize * 2) >= targetHeight) {
+            options.inSampleSize *= 2;
+        }
+        final Bitmap sampled = BitmapFactory.decodeResource(resources, resId, options);
+        if(sampled == null) {
+            return null;
+        }
+        Bitmap bitmap = sampled;
+        if(sampled.getWidth() != targetWidth || sampled.getHeight() != targetHeight) {
+            bitmap = Bitmap.createScaledBitmap(sampled, targetWidth, targetHeight, true);
+            if(bitmap != sampled) {
+                sampled.recycle();
+            }
+        }
+        // The pixels already have their final size, so they must not be scaled again when drawn
+        bitmap.setDensity(Bitmap.DENSITY_NONE);
+        return bitmap;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Coordinates a group of {@link FloatingActionMenu}s so that only one of them stays open.
+ * The group keeps a reference to the currently open menu, so opening a menu closes only that one,
+ * no matter how many menus are in the group.
+ * Scroll and layout changes can be routed through the group as well, in which case
+ * only the open menu is updated.
+ */
+public class MenuGroup implements ViewTreeObserver.OnScrollChangedListener, View.OnLayoutChangeListener {
+
+    /** The menu of this group which is currently open, or null if all of them are closed */
+    private FloatingActionMenu openMenu;
+
+    public MenuGroup() {
+        openMenu = null;
+    }
+
+    /**
+     * Adds a menu to this group. A menu can belong to only one group at a time.
+     * @param menu the menu to add
+     * @return the group itself
+     */
+    public MenuGroup add(FloatingActionMenu menu) {
+        menu.setMenuGroup(this);
+        if(menu.isOpen()) {
+            // Nothing was clicked, so the menu that was open before is closed right away
+            onMenuOpening(menu, false);
+        }
+        return this;
+    }
+
+    /**
+     * Removes a menu from this group.
+     * @param menu the menu to remove
+     */
+    public void remove(FloatingActionMenu menu) {
+        if(menu.getMenuGroup() == this) {
+            menu.setMenuGroup(null);
+        }
+        if(openMenu == menu) {
+            openMenu = null;
+        }
+    }
+
+    /**
+     * @return the menu of this group which is currently open, or null
+     */
+    public FloatingActionMenu getOpenMenu() {
+        return openMenu;
+    }
+
+    /**
+     * Closes the currently open menu of this group, if there is any.
+     * @param animated if true, the menu is closed by its {@link com.oguzdev.circularfloatingactionmenu.library.animation.MenuAnimationHandler}
+     */
+    public void closeOpenMenu(boolean animated) {
+        if(openMenu != null) {
+            openMenu.close(animated);
+        }
+    }
+
+    /**
+     * Called by a member menu right before it opens, or when it is closing and an opening is queued.
+     * Closes the previously open menu, which is the only one that can be open,
+     * or cancels the opening queued by it.
+     * @param menu the menu that is about to open
+     * @param animated whether the opening of the menu is animated, which also applies to the closing of the previous one
+     */
+    void onMenuOpening(FloatingActionMenu menu, boolean animated) {
+        final FloatingActionMenu previous = openMenu;
+        openMenu = menu;
+        if(previous != null && previous != menu && previous.isHeadingOpen()) {
+            previous.close(animated);
+        }
+    }
+
+    /**
+     * Called by a member menu when it closes.
+     * @param menu the menu that is closed
+     */
+    void onMenuClosed(FloatingActionMenu menu) {
+        if(openMenu == menu) {
+            openMenu = null;
+        }
+    }
+
+    /**
+     * Repositions the items of the open menu when a scrolling parent is scrolled.
+     */
+    @Override
+    public void onScrollChanged() {
+        if(openMenu != null) {
+            openMenu.updateItemPositions();
+        }
+    }
+
+    /**
+     * Repositions the items of the open menu when the size of the observed layout changes,
+     * for example when the soft keyboard opens or closes.
+     */
+    @Override
+    public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        if(openMenu != null && right - left != 0 && bottom - top != 0 &&
+                (oldLeft != left || oldTop != top || oldRight != right || oldBottom != bottom)) {
+            openMenu.updateItemPositions();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import java.util.Arrays;
+
+/**
+ * Performance figures of a single interaction, reported by a {@link MenuMetricsTracker}.
+ * An interaction is an opening or closing of a {@link FloatingActionMenu}, or a drag of a floating view,
+ * from its start until the last frame of its animation.
+ * All times are in nanoseconds, on the {@link System#nanoTime()} time base.
+ */
+public final class MenuMetrics {
+
+    public static final int INTERACTION_OPEN = 0;
+    public static final int INTERACTION_CLOSE = 1;
+    public static final int INTERACTION_DRAG = 2;
+
+    /** Reported instead of a time that could not be measured on this device */
+    public static final long UNKNOWN = -1;
+
+    private final int interaction;
+    private final long latencyNanos;
+    private final long durationNanos;
+    private final long[] frameDurationsNanos;
+    private final int jankCount;
+    private final int addViewCount;
+    private final int updateViewLayoutCount;
+    private final int removeViewCount;
+
+    MenuMetrics(int interaction,
+                long latencyNanos,
+                long durationNanos,
+                long[] frameDurationsNanos,
+                int jankCount,
+                int addViewCount,
+                int updateViewLayoutCount,
+                int removeViewCount) {
+        this.interaction = interaction;
+        this.latencyNanos = latencyNanos;
+        this.durationNanos = durationNanos;
+        this.frameDurationsNanos = frameDurationsNanos;
+        this.jankCount = jankCount;
+        this.addViewCount = addViewCount;
+        this.updateViewLayoutCount = updateViewLayoutCount;
+        this.removeViewCount = removeViewCount;
+    }
+
+    /**
+     * @return one of {@link #INTERACTION_OPEN}, {@link #INTERACTION_CLOSE} or {@link #INTERACTION_DRAG}
+     */
+    public int getInteraction() {
+        return interaction;
+    }
+
+    /**
+     * @return the time from the start of the interaction (e.g. the click) to its first frame,
+     * or {@link #UNKNOWN} if frames cannot be observed on this device
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * @return the time from the start of the interaction to its end
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the number of frame intervals observed during the interaction
+     */
+    public int getFrameCount() {
+        return frameDurationsNanos.length;
+    }
+
+    /**
+     * @param index the index of the frame interval, in the order they were observed
+     * @return the time between the vsync of a frame and the vsync of the previous one
+     */
+    public long getFrameDurationNanos(int index) {
+        return frameDurationsNanos[index];
+    }
+
+    /**
+     * @return a copy of all the frame durations
+     */
+    public long[] getFrameDurationsNanos() {
+        return frameDurationsNanos.clone();
+    }
+
+    /**
+     * @return the number of frames that took longer than {@link MenuMetricsTracker#JANK_THRESHOLD_NANOS}
+     */
+    public int getJankCount() {
+        return jankCount;
+    }
+
+    /**
+     * @return the number of WindowManager.addView calls made during the interaction
+     */
+    public int getAddViewCount() {
+        return addViewCount;
+    }
+
+    /**
+     * @return the number of WindowManager.updateViewLayout calls made during the interaction
+     */
+    public int getUpdateViewLayoutCount() {
+        return updateViewLayoutCount;
+    }
+
+    /**
+     * @return the number of WindowManager.removeView calls made during the interaction
+     */
+    public int getRemoveViewCount() {
+        return removeViewCount;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuMetrics{interaction=" + interaction +
+                ", latencyNanos=" + latencyNanos +
+                ", durationNanos=" + durationNanos +
+                ", frameDurationsNanos=" + Arrays.toString(frameDurationsNanos) +
+                ", jankCount=" + jankCount +
+                ", addViewCount=" + addViewCount +
+                ", updateViewLayoutCount=" + updateViewLayoutCount +
+                ", removeViewCount=" + removeViewCount +
+                "}";
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+/**
+ * A listener that receives the performance figures of every finished interaction,
+ * e.g. to forward them to a telemetry service.
+ * It is always called on the main thread, so it should return quickly.
+ */
+public interface MenuMetricsListener {
+    public void onMetricsReported(MenuMetrics metrics);
+}
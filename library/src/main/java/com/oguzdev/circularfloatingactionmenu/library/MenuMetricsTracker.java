@@ -0,0 +1,224 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * Collects {@link MenuMetrics} for one interaction at a time and hands them to a {@link MenuMetricsListener}.
+ * Frames are observed with a Choreographer callback on API 16 and above; on older devices only the
+ * window operation counts and the total duration are reported.
+ * Window operations are not intercepted, so every call site that talks to the WindowManager
+ * has to report itself through {@link #countAddView()}, {@link #countUpdateViewLayout()} and {@link #countRemoveView()}.
+ * Nothing is recorded and no callback is posted while there is no listener.
+ * This class must only be used from the main thread.
+ */
+public class MenuMetricsTracker {
+
+    /** The duration of a frame on a 60 Hz display */
+    public static final long FRAME_INTERVAL_NANOS = 1000000000L / 60;
+    /** A frame that takes longer than this has missed at least one vsync */
+    public static final long JANK_THRESHOLD_NANOS = FRAME_INTERVAL_NANOS * 3 / 2;
+
+    private MenuMetricsListener listener;
+    /** Observes frames, or null if the Choreographer is not available */
+    private final FrameMonitor frameMonitor;
+
+    /** whether an interaction is currently being recorded */
+    private boolean tracking;
+    /** whether the interaction has ended and is only waiting for its first frame */
+    private boolean endRequested;
+    private int interaction;
+    private long startNanos;
+    private long latencyNanos;
+    private long lastFrameTimeNanos;
+    private long[] frameDurationsNanos;
+    private int frameCount;
+    private int jankCount;
+    private int addViewCount;
+    private int updateViewLayoutCount;
+    private int removeViewCount;
+
+    public MenuMetricsTracker() {
+        frameDurationsNanos = new long[32];
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            frameMonitor = new FrameMonitor(this);
+        }
+        else {
+            frameMonitor = null;
+        }
+    }
+
+    /**
+     * Sets the listener that receives the metrics. Passing null discards the current interaction.
+     * @param listener the listener, or null to stop tracking
+     */
+    public void setListener(MenuMetricsListener listener) {
+        this.listener = listener;
+        if(listener == null) {
+            cancel();
+        }
+    }
+
+    public MenuMetricsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return whether an interaction is currently being recorded
+     */
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * Starts recording a new interaction. An interaction that is still being recorded is reported first.
+     * @param interaction one of the INTERACTION constants of {@link MenuMetrics}
+     */
+    public void begin(int interaction) {
+        if(listener == null) {
+            return;
+        }
+        if(tracking) {
+            report();
+        }
+        tracking = true;
+        endRequested = false;
+        this.interaction = interaction;
+        startNanos = System.nanoTime();
+        latencyNanos = MenuMetrics.UNKNOWN;
+        lastFrameTimeNanos = 0;
+        frameCount = 0;
+        jankCount = 0;
+        addViewCount = 0;
+        updateViewLayoutCount = 0;
+        removeViewCount = 0;
+        if(frameMonitor != null) {
+            frameMonitor.start();
+        }
+    }
+
+    /**
+     * Ends the current interaction. If no frame has been drawn since it began,
+     * it is reported right after the next frame so that the latency is known.
+     */
+    public void end() {
+        if(!tracking) {
+            return;
+        }
+        if(frameMonitor != null && lastFrameTimeNanos == 0) {
+            endRequested = true;
+            return;
+        }
+        report();
+    }
+
+    /**
+     * Discards the current interaction without reporting it.
+     */
+    public void cancel() {
+        tracking = false;
+        endRequested = false;
+        if(frameMonitor != null) {
+            frameMonitor.stop();
+        }
+    }
+
+    public void countAddView() {
+        if(tracking) {
+            addViewCount++;
+        }
+    }
+
+    public void countUpdateViewLayout() {
+        if(tracking) {
+            updateViewLayoutCount++;
+        }
+    }
+
+    public void countRemoveView() {
+        if(tracking) {
+            removeViewCount++;
+        }
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if(!tracking) {
+            return;
+        }
+        if(lastFrameTimeNanos == 0) {
+            latencyNanos = System.nanoTime() - startNanos;
+        }
+        else {
+            final long duration = frameTimeNanos - lastFrameTimeNanos;
+            if(frameCount == frameDurationsNanos.length) {
+                frameDurationsNanos = Arrays.copyOf(frameDurationsNanos, frameCount * 2);
+            }
+            frameDurationsNanos[frameCount++] = duration;
+            if(duration > JANK_THRESHOLD_NANOS) {
+                jankCount++;
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        if(endRequested) {
+            report();
+        }
+        else {
+            frameMonitor.start();
+        }
+    }
+
+    private void report() {
+        final MenuMetrics metrics = new MenuMetrics(interaction,
+                latencyNanos,
+                System.nanoTime() - startNanos,
+                Arrays.copyOf(frameDurationsNanos, frameCount),
+                jankCount,
+                addViewCount,
+                updateViewLayoutCount,
+                removeViewCount);
+        cancel();
+        if(listener != null) {
+            listener.onMetricsReported(metrics);
+        }
+    }
+
+    /**
+     * Kept in a separate class so that the Choreographer is never loaded on older devices.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FrameMonitor implements Choreographer.FrameCallback {
+
+        private final MenuMetricsTracker tracker;
+        private boolean posted;
+
+        FrameMonitor(MenuMetricsTracker tracker) {
+            this.tracker = tracker;
+        }
+
+        void start() {
+            if(!posted) {
+                posted = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+
+        void stop() {
+            if(posted) {
+                posted = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            posted = false;
+            tracker.onFrame(frameTimeNanos);
+        }
+    }
+}
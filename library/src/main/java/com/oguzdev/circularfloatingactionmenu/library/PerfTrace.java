@@ -0,0 +1,123 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Optional {@link Trace} sections around the hot paths of this library, so that its share of a frame
+ * can be seen in systrace and Perfetto captures, including those of release builds.
+ * Tracing is off by default; until it is turned on for the first time every call is a single static field check.
+ * Sections must be begun and ended on the same thread, which is the main thread for all of this library's sections.
+ * Each thread remembers which of its begun sections were actually opened, so that turning tracing on or off
+ * in the middle of a section never ends another section, on the same thread or on another one.
+ */
+public final class PerfTrace {
+
+    /** android.os.Trace is only available from API 18 on */
+    private static final boolean SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    private static volatile boolean enabled;
+    /** whether tracing was ever turned on, from then on the sections of each thread are tracked */
+    private static volatile boolean tracking;
+    private static final ThreadLocal<Sections> SECTIONS = new ThreadLocal<Sections>() {
+        @Override
+        protected Sections initialValue() {
+            return new Sections();
+        }
+    };
+
+    private PerfTrace() {
+    }
+
+    /**
+     * Turns the trace sections on or off. Sections that are already open are still ended,
+     * so it is safe to toggle this at any time.
+     * @param enabled true to emit trace sections
+     */
+    public static void setEnabled(boolean enabled) {
+        if(enabled && SUPPORTED) {
+            tracking = true;
+        }
+        PerfTrace.enabled = enabled && SUPPORTED;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Begins a section. Every call must be paired with {@link #endSection()} in a finally block.
+     * @param name the name shown in the trace, at most 127 characters
+     */
+    public static void beginSection(String name) {
+        if(!tracking) {
+            return;
+        }
+        final boolean open = enabled;
+        SECTIONS.get().push(open);
+        if(open) {
+            Api18.beginSection(name);
+        }
+    }
+
+    /**
+     * Ends the innermost section begun by {@link #beginSection(String)} on this thread.
+     * Does nothing if that section was skipped because tracing was off at the time.
+     */
+    public static void endSection() {
+        if(!tracking) {
+            return;
+        }
+        final Sections sections = SECTIONS.get();
+        // Empty if the section was begun before tracing was turned on for the first time
+        if(!sections.isEmpty() && sections.pop()) {
+            Api18.endSection();
+        }
+    }
+
+    /**
+     * The sections of one thread that have been begun but not ended yet.
+     */
+    private static class Sections {
+
+        /** whether each begun section was actually opened, innermost last */
+        private boolean[] opened = new boolean[16];
+        private int depth;
+
+        void push(boolean open) {
+            if(depth == opened.length) {
+                final boolean[] grown = new boolean[depth * 2];
+                System.arraycopy(opened, 0, grown, 0, depth);
+                opened = grown;
+            }
+            opened[depth++] = open;
+        }
+
+        boolean pop() {
+            return opened[--depth];
+        }
+
+        boolean isEmpty() {
+            return depth == 0;
+        }
+    }
+
+    /**
+     * Kept in a separate class so that Trace is never loaded on older devices.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static class Api18 {
+
+        static void beginSection(String name) {
+            Trace.beginSection(name);
+        }
+
+        static void endSection() {
+            Trace.endSection();
+        }
+    }
+}
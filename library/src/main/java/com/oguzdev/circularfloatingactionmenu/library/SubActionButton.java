@@ -10,6 +10,7 @@ import android.os.Build;
 import android.view.Gravity;
 import android.view.View;
 import android.widget.FrameLayout;
+import android.widget.ImageView;
 
 /**
  * A simple button implementation with a similar look an feel to{@link FloatingActionButton}.
@@ -96,6 +97,8 @@ public class SubActionButton extends FrameLayout {
         private Drawable backgroundDrawable;
         private View contentView;
         private FrameLayout.LayoutParams contentParams;
+        /** the icon to show instead of a content view, or 0 */
+        private int contentIconResId;
 
         public Builder(Context context) {
             this.context = context;
@@ -124,16 +127,46 @@ public class SubActionButton extends FrameLayout {
 
         public Builder setContentView(View contentView) {
             this.contentView = contentView;
+            this.contentIconResId = 0;
             return this;
         }
 
         public Builder setContentView(View contentView, FrameLayout.LayoutParams contentParams) {
             this.contentView = contentView;
             this.contentParams = contentParams;
+            this.contentIconResId = 0;
+            return this;
+        }
+
+        /**
+         * Shows an icon as the content of every button built from now on.
+         * The icon is decoded in the background at the size of the content area by the shared {@link IconLoader},
+         * so buttons with the same icon and size share a single bitmap.
+         * @param resId the resource id of the icon
+         * @return the builder object itself
+         */
+        public Builder setContentIcon(int resId) {
+            this.contentView = null;
+            this.contentParams = null;
+            this.contentIconResId = resId;
             return this;
         }
 
         public SubActionButton build() {
+            if(contentIconResId != 0) {
+                final int buttonSize = context.getResources().getDimensionPixelSize(R.dimen.sub_action_button_size);
+                final int margin = context.getResources().getDimensionPixelSize(R.dimen.sub_action_button_content_margin);
+                final int iconWidth = (layoutParams.width > 0 ? layoutParams.width : buttonSize) - 2 * margin;
+                final int iconHeight = (layoutParams.height > 0 ? layoutParams.height : buttonSize) - 2 * margin;
+                final ImageView icon = new ImageView(context);
+                IconLoader.getInstance(context).load(icon, contentIconResId, iconWidth, iconHeight);
+                return new SubActionButton(context,
+                        layoutParams,
+                        theme,
+                        backgroundDrawable,
+                        icon,
+                        new FrameLayout.LayoutParams(iconWidth, iconHeight, Gravity.CENTER));
+            }
             return new SubActionButton(context,
                     layoutParams,
                     theme,
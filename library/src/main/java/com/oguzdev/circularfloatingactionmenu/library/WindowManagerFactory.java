@@ -0,0 +1,16 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.content.Context;
+import android.view.WindowManager;
+
+/**
+ * Creates the WindowManager that the views of this library use to add, move and remove their windows.
+ * Install one with {@link WindowManagers#setFactory(WindowManagerFactory)}, e.g. one that wraps the system
+ * WindowManager, to observe or replace the window operations in tests and benchmarks.
+ */
+public interface WindowManagerFactory {
+    public WindowManager getWindowManager(Context context);
+}
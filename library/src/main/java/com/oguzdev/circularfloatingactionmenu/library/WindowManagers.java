@@ -0,0 +1,48 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.content.Context;
+import android.view.WindowManager;
+
+/**
+ * The single place where the views of this library obtain their WindowManager.
+ * By default it is the system service of the given context.
+ */
+public final class WindowManagers {
+
+    /** The default factory, which returns the WINDOW_SERVICE of the context */
+    public static final WindowManagerFactory SYSTEM = new WindowManagerFactory() {
+        @Override
+        public WindowManager getWindowManager(Context context) {
+            return (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        }
+    };
+
+    private static WindowManagerFactory factory = SYSTEM;
+
+    private WindowManagers() {
+    }
+
+    /**
+     * Replaces the factory. Views that already hold a WindowManager keep using it,
+     * so the factory should be installed before the views are created.
+     * @param factory the new factory, or null to restore {@link #SYSTEM}
+     */
+    public static void setFactory(WindowManagerFactory factory) {
+        WindowManagers.factory = factory != null ? factory : SYSTEM;
+    }
+
+    public static WindowManagerFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * @param context the context of the view
+     * @return the WindowManager to use for the view
+     */
+    public static WindowManager get(Context context) {
+        return factory.getWindowManager(context);
+    }
+}
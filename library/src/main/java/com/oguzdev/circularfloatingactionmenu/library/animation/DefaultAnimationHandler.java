@@ -12,6 +12,7 @@ import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.OvershootInterpolator;
 
 import com.oguzdev.circularfloatingactionmenu.library.FloatingActionMenu;
+import com.oguzdev.circularfloatingactionmenu.library.PerfTrace;
 
 /**
  * An example animation handler
@@ -32,12 +33,26 @@ public class DefaultAnimationHandler extends MenuAnimationHandler {
 
     @Override
     public void animateMenuOpening(Point center) {
+        PerfTrace.beginSection("DefaultAnimationHandler.animateMenuOpening");
+        try {
+            animateMenuOpeningImpl(center);
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void animateMenuOpeningImpl(Point center) {
         super.animateMenuOpening(center);
 
         setAnimating(true);
 
         Animator lastAnimation = null;
         for (int i = 0; i < menu.getSubActionItems().size(); i++) {
+            if(menu.getSubActionItems().get(i).culled) {
+                // The item is outside the window and has not been attached
+                continue;
+            }
 
             menu.getSubActionItems().get(i).view.setScaleX(0);
             menu.getSubActionItems().get(i).view.setScaleY(0);
@@ -55,28 +70,40 @@ public class DefaultAnimationHandler extends MenuAnimationHandler {
             animation.setInterpolator(new OvershootInterpolator(0.9f));
             animation.addListener(new SubActionItemAnimationListener(menu.getSubActionItems().get(i), ActionType.OPENING));
 
-            if(i == 0) {
+            if(lastAnimation == null) {
                 lastAnimation = animation;
             }
 
             // Put a slight lag between each of the menu items to make it asymmetric
             animation.setStartDelay((menu.getSubActionItems().size() - i) * LAG_BETWEEN_ITEMS);
-            animation.start();
+            startAnimation(animation);
         }
         if(lastAnimation != null) {
             lastAnimation.addListener(new LastAnimationListener());
         }
-
     }
 
     @Override
     public void animateMenuClosing(Point center) {
+        PerfTrace.beginSection("DefaultAnimationHandler.animateMenuClosing");
+        try {
+            animateMenuClosingImpl(center);
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void animateMenuClosingImpl(Point center) {
         super.animateMenuOpening(center);
 
         setAnimating(true);
 
         Animator lastAnimation = null;
         for (int i = 0; i < menu.getSubActionItems().size(); i++) {
+            if(menu.getSubActionItems().get(i).culled) {
+                continue;
+            }
             PropertyValuesHolder pvhX = PropertyValuesHolder.ofFloat(View.TRANSLATION_X, - (menu.getSubActionItems().get(i).x - center.x + menu.getSubActionItems().get(i).width / 2));
             PropertyValuesHolder pvhY = PropertyValuesHolder.ofFloat(View.TRANSLATION_Y, - (menu.getSubActionItems().get(i).y - center.y + menu.getSubActionItems().get(i).height / 2));
             PropertyValuesHolder pvhR = PropertyValuesHolder.ofFloat(View.ROTATION, -720);
@@ -89,12 +116,12 @@ public class DefaultAnimationHandler extends MenuAnimationHandler {
             animation.setInterpolator(new AccelerateDecelerateInterpolator());
             animation.addListener(new SubActionItemAnimationListener(menu.getSubActionItems().get(i), ActionType.CLOSING));
 
-            if(i == 0) {
+            if(lastAnimation == null) {
                 lastAnimation = animation;
             }
 
             animation.setStartDelay((menu.getSubActionItems().size() - i) * LAG_BETWEEN_ITEMS);
-            animation.start();
+            startAnimation(animation);
         }
         if(lastAnimation != null) {
             lastAnimation.addListener(new LastAnimationListener());
@@ -133,7 +160,7 @@ public class DefaultAnimationHandler extends MenuAnimationHandler {
 
         @Override
         public void onAnimationCancel(Animator animation) {
-            restoreSubActionViewAfterAnimation(subActionItem, actionType);
+            // onAnimationEnd follows and restores the view
         }
 
         @Override public void onAnimationRepeat(Animator animation) {}
@@ -4,6 +4,7 @@
 package com.oguzdev.circularfloatingactionmenu.library.animation;
 
 import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.graphics.Point;
 import android.view.ViewGroup;
 import android.view.WindowManager;
@@ -11,6 +12,9 @@ import android.widget.FrameLayout;
 
 import com.oguzdev.circularfloatingactionmenu.library.FloatingActionMenu;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An abstract class that is a prototype for the actual animation handlers
  */
@@ -21,6 +25,15 @@ public abstract class MenuAnimationHandler {
 
     protected FloatingActionMenu menu;
 
+    /** the animations of the running transition, which {@link #cancelAnimations()} ends at once */
+    private final List<Animator> runningAnimations = new ArrayList<Animator>();
+    private final Animator.AnimatorListener runningAnimationListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            runningAnimations.remove(animation);
+        }
+    };
+
     public MenuAnimationHandler() {
     }
 
@@ -77,6 +90,10 @@ public abstract class MenuAnimationHandler {
             subActionItem.view.setLayoutParams(lp);
         }
         else if(actionType == ActionType.CLOSING) {
+            if(subActionItem.view.getParent() == null) {
+                // The menu has ended the transition without waiting for this animation
+                return;
+            }
             Point center = menu.getActionViewCenter();
             FrameLayout.LayoutParams lp = (FrameLayout.LayoutParams) params;
             if(menu.isSystemOverlay()) {
@@ -99,9 +116,31 @@ public abstract class MenuAnimationHandler {
         }
     }
 
+    /**
+     * Starts an animation of the running transition.
+     * Only animations started by this method can be ended early by {@link #cancelAnimations()}.
+     * @param animation the animation to start
+     */
+    protected void startAnimation(Animator animation) {
+        runningAnimations.add(animation);
+        animation.addListener(runningAnimationListener);
+        animation.start();
+    }
+
+    /**
+     * Ends the running transition right away by cancelling all the animations started by {@link #startAnimation(Animator)}.
+     * Their listeners restore the items and complete the transition, just as if the animations had finished.
+     */
+    public void cancelAnimations() {
+        while(!runningAnimations.isEmpty()) {
+            runningAnimations.remove(runningAnimations.size() - 1).cancel();
+        }
+    }
+
     /**
      * A special animation listener that is intended to listen the last of the sequential animations.
-     * Changes the animating property of children.
+     * Changes the animating property of children, and completes the transition of the menu when the animation is over.
+     * A cancelled animation is completed by its onAnimationEnd as well, which the framework calls right after onAnimationCancel.
      */
     public class LastAnimationListener implements Animator.AnimatorListener {
 
@@ -113,11 +152,12 @@ public abstract class MenuAnimationHandler {
         @Override
         public void onAnimationEnd(Animator animation) {
             setAnimating(false);
+            menu.onTransitionFinished();
         }
 
         @Override
         public void onAnimationCancel(Animator animation) {
-            setAnimating(false);
+            // onAnimationEnd follows, the transition must only be completed once
         }
 
         @Override
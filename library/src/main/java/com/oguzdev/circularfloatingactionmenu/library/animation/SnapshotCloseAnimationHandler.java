@@ -0,0 +1,173 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library.animation;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ObjectAnimator;
+import android.animation.PropertyValuesHolder;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Point;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+
+import com.oguzdev.circularfloatingactionmenu.core.OverlayBounds;
+import com.oguzdev.circularfloatingactionmenu.library.FloatingActionMenu;
+import com.oguzdev.circularfloatingactionmenu.library.PerfTrace;
+
+import java.util.List;
+
+/**
+ * Opens the menu like {@link DefaultAnimationHandler}, but closes it by drawing all the items into a single
+ * bitmap, removing the real item views right away and animating only the bitmap on a hardware layer.
+ * Large menus then close with a single view to draw per frame, and their items stop receiving touches immediately.
+ * The bitmap is kept and reused for the next closing as long as the menu has the same size.
+ */
+public class SnapshotCloseAnimationHandler extends DefaultAnimationHandler {
+
+    /** the view that shows the snapshot while the menu is closing, created on first use */
+    private ImageView snapshotView;
+    private Bitmap snapshotBitmap;
+    /** reusable bounds of the items that are attached */
+    private final OverlayBounds bounds;
+
+    public SnapshotCloseAnimationHandler() {
+        bounds = new OverlayBounds();
+    }
+
+    @Override
+    public void animateMenuClosing(Point center) {
+        PerfTrace.beginSection("SnapshotCloseAnimationHandler.animateMenuClosing");
+        try {
+            animateMenuClosingImpl(center);
+        }
+        finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private void animateMenuClosingImpl(Point center) {
+        if(menu == null) {
+            throw new NullPointerException("MenuAnimationHandler cannot animate without a valid FloatingActionMenu.");
+        }
+        final List<FloatingActionMenu.Item> items = menu.getSubActionItems();
+        bounds.reset();
+        for(int i = 0; i < items.size(); i++) {
+            final FloatingActionMenu.Item item = items.get(i);
+            if(!item.culled) {
+                bounds.include(item.x, item.y, item.width, item.height);
+            }
+        }
+        if(bounds.width() <= 0 || bounds.height() <= 0) {
+            // Nothing to capture, close the items one by one
+            super.animateMenuClosing(center);
+            return;
+        }
+
+        setAnimating(true);
+
+        final Bitmap bitmap = obtainBitmap(bounds.width(), bounds.height());
+        final Canvas canvas = new Canvas(bitmap);
+        for(int i = 0; i < items.size(); i++) {
+            final FloatingActionMenu.Item item = items.get(i);
+            if(item.culled) {
+                continue;
+            }
+            canvas.save();
+            canvas.translate(item.x - bounds.left, item.y - bounds.top);
+            item.view.draw(canvas);
+            canvas.restore();
+        }
+
+        if(snapshotView == null) {
+            snapshotView = new ImageView(menu.getMainActionView().getContext());
+        }
+        snapshotView.setImageBitmap(bitmap);
+        snapshotView.setAlpha(1);
+        snapshotView.setScaleX(1);
+        snapshotView.setScaleY(1);
+        snapshotView.setRotation(0);
+        // Shrink towards the main action view, as the items of the default animation do
+        snapshotView.setPivotX(center.x - bounds.left);
+        snapshotView.setPivotY(center.y - bounds.top);
+
+        final FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(bounds.width(), bounds.height(), Gravity.TOP | Gravity.LEFT);
+        final ViewGroup container;
+        if(menu.isSystemOverlay()) {
+            final WindowManager.LayoutParams overlayParams = (WindowManager.LayoutParams) menu.getOverlayContainer().getLayoutParams();
+            params.setMargins(bounds.left - overlayParams.x, bounds.top - overlayParams.y, 0, 0);
+            container = menu.getOverlayContainer();
+        }
+        else {
+            params.setMargins(bounds.left, bounds.top, 0, 0);
+            container = (ViewGroup) menu.getActivityContentView();
+        }
+        // Add the snapshot before removing the items, so that the overlay container is never empty in between
+        container.addView(snapshotView, params);
+        for(int i = 0; i < items.size(); i++) {
+            final FloatingActionMenu.Item item = items.get(i);
+            if(!item.culled) {
+                menu.removeViewFromCurrentContainer(item.view);
+            }
+        }
+
+        snapshotView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        PropertyValuesHolder pvhR = PropertyValuesHolder.ofFloat(View.ROTATION, -90);
+        PropertyValuesHolder pvhsX = PropertyValuesHolder.ofFloat(View.SCALE_X, 0);
+        PropertyValuesHolder pvhsY = PropertyValuesHolder.ofFloat(View.SCALE_Y, 0);
+        PropertyValuesHolder pvhA = PropertyValuesHolder.ofFloat(View.ALPHA, 0);
+        final ObjectAnimator animation = ObjectAnimator.ofPropertyValuesHolder(snapshotView, pvhR, pvhsX, pvhsY, pvhA);
+        animation.setDuration(DURATION);
+        animation.setInterpolator(new AccelerateDecelerateInterpolator());
+        // Remove the snapshot before the transition of the menu is completed
+        animation.addListener(new SnapshotAnimationListener(container));
+        animation.addListener(new LastAnimationListener());
+        startAnimation(animation);
+    }
+
+    /**
+     * @return a transparent bitmap of the given size, which is the previous one if it has the same size
+     */
+    private Bitmap obtainBitmap(int width, int height) {
+        if(snapshotBitmap != null && snapshotBitmap.getWidth() == width && snapshotBitmap.getHeight() == height) {
+            snapshotBitmap.eraseColor(Color.TRANSPARENT);
+            return snapshotBitmap;
+        }
+        if(snapshotBitmap != null) {
+            snapshotBitmap.recycle();
+        }
+        snapshotBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        return snapshotBitmap;
+    }
+
+    /**
+     * Removes the snapshot when its animation ends or is cancelled,
+     * and detaches the overlay container that only contained the snapshot.
+     */
+    private class SnapshotAnimationListener extends AnimatorListenerAdapter {
+
+        private final ViewGroup container;
+
+        SnapshotAnimationListener(ViewGroup container) {
+            this.container = container;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            snapshotView.setLayerType(View.LAYER_TYPE_NONE, null);
+            container.removeView(snapshotView);
+            snapshotView.setImageDrawable(null);
+            if(menu.isSystemOverlay() && menu.getOverlayContainer().getChildCount() == 0) {
+                menu.detachOverlayContainer();
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.app.Activity;
+import android.os.Build;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives menus of different sizes, in Activity and system overlay modes, with a paused main looper
+ * and fails when they need more window operations, view attachments or allocations than
+ * {@link MenuPerformanceBudget} allows.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class FloatingActionMenuPerformanceTest {
+
+    private static final int[] ITEM_COUNTS = {1, 3, 8, 20};
+    private static final int UPDATE_REPETITIONS = 20;
+
+    private Activity activity;
+    private RecordingWindowManager windowManager;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+        windowManager = new RecordingWindowManager(WindowManagers.SYSTEM.getWindowManager(activity));
+        WindowManagers.setFactory(RecordingWindowManager.factory(windowManager));
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        WindowManagers.setFactory(null);
+    }
+
+    @Test
+    public void openAndCloseStayWithinBudget() {
+        for(boolean systemOverlay : new boolean[] {false, true}) {
+            for(int itemCount : ITEM_COUNTS) {
+                final FloatingActionMenu menu = buildMenu(itemCount, systemOverlay);
+                final MenuOperationCounter counter = new MenuOperationCounter().observe(menu);
+                windowManager.reset();
+
+                menu.open(false);
+                flush();
+                assertTrue(menu.isOpen());
+                assertEquals(getVisibleItemCount(menu), counter.attached);
+                assertOpenWindowOperations(counter, systemOverlay);
+                assertRecorded(counter);
+
+                counter.reset();
+                windowManager.reset();
+                menu.close(false);
+                flush();
+                assertFalse(menu.isOpen());
+                assertEquals(getVisibleItemCount(menu), counter.detached);
+                assertCloseWindowOperations(counter, systemOverlay);
+                assertRecorded(counter);
+            }
+        }
+    }
+
+    @Test
+    public void animatedToggleStaysWithinBudget() {
+        for(boolean systemOverlay : new boolean[] {false, true}) {
+            for(int itemCount : ITEM_COUNTS) {
+                final FloatingActionMenu menu = buildMenu(itemCount, systemOverlay);
+                final MenuOperationCounter counter = new MenuOperationCounter().observe(menu);
+
+                menu.toggle(true);
+                flush();
+                assertTrue(menu.isOpen());
+                assertFalse(menu.getMetricsTracker().isTracking());
+                assertEquals(1, counter.interactions);
+                assertEquals(getVisibleItemCount(menu), counter.attached);
+                assertOpenWindowOperations(counter, systemOverlay);
+
+                counter.reset();
+                menu.toggle(true);
+                flush();
+                assertFalse(menu.isOpen());
+                assertEquals(1, counter.interactions);
+                assertEquals(getVisibleItemCount(menu), counter.detached);
+                assertCloseWindowOperations(counter, systemOverlay);
+            }
+        }
+    }
+
+    @Test
+    public void updateItemPositionsDoesNotReattachViews() {
+        for(boolean systemOverlay : new boolean[] {false, true}) {
+            for(int itemCount : ITEM_COUNTS) {
+                final FloatingActionMenu menu = buildMenu(itemCount, systemOverlay);
+                menu.open(false);
+                flush();
+                final MenuOperationCounter counter = new MenuOperationCounter().observe(menu);
+                windowManager.reset();
+
+                for(int i = 0; i < UPDATE_REPETITIONS; i++) {
+                    menu.updateItemPositions();
+                }
+                flush();
+                assertEquals(0, windowManager.getOperationCount());
+                assertEquals(0, counter.attached);
+                assertEquals(0, counter.detached);
+                assertEquals(0, counter.interactions);
+
+                menu.close(false);
+                flush();
+            }
+        }
+    }
+
+    @Test
+    public void overlayMenuRunsWithoutAWindowManagerDelegate() {
+        final RecordingWindowManager inMemory = new RecordingWindowManager(windowManager.getDefaultDisplay());
+        WindowManagers.setFactory(RecordingWindowManager.factory(inMemory));
+        final FloatingActionMenu menu = buildMenu(3, true);
+        final MenuOperationCounter counter = new MenuOperationCounter().observe(menu);
+        inMemory.reset();
+
+        menu.toggle(false);
+        flush();
+        assertTrue(menu.isOpen());
+        assertOpenWindowOperations(counter, true);
+        assertTrue(inMemory.getViews().contains(menu.getOverlayContainer()));
+
+        counter.reset();
+        menu.toggle(false);
+        flush();
+        assertFalse(menu.isOpen());
+        assertCloseWindowOperations(counter, true);
+        assertFalse(inMemory.getViews().contains(menu.getOverlayContainer()));
+    }
+
+    @Test
+    public void allocationsStayWithinBudget() {
+        final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+        Assume.assumeTrue(threadBean != null);
+
+        for(int itemCount : ITEM_COUNTS) {
+            final FloatingActionMenu menu = buildMenu(itemCount, false);
+            // Warm up once, so that class loading and lazily created shadows are not counted
+            menu.open(false);
+            menu.updateItemPositions();
+            menu.close(false);
+            flush();
+
+            long start = allocatedBytes(threadBean);
+            menu.open(false);
+            menu.close(false);
+            long bytes = allocatedBytes(threadBean) - start;
+            assertWithinBudget("open/close with " + itemCount + " items", bytes,
+                    MenuPerformanceBudget.OPEN_CLOSE_BASE_BYTES + MenuPerformanceBudget.OPEN_CLOSE_BYTES_PER_ITEM * itemCount);
+
+            menu.open(false);
+            start = allocatedBytes(threadBean);
+            for(int i = 0; i < UPDATE_REPETITIONS; i++) {
+                menu.updateItemPositions();
+            }
+            bytes = (allocatedBytes(threadBean) - start) / UPDATE_REPETITIONS;
+            assertWithinBudget("updateItemPositions with " + itemCount + " items", bytes,
+                    MenuPerformanceBudget.UPDATE_ITEM_POSITIONS_BASE_BYTES + MenuPerformanceBudget.UPDATE_ITEM_POSITIONS_BYTES_PER_ITEM * itemCount);
+            menu.close(false);
+            flush();
+        }
+    }
+
+    private FloatingActionMenu buildMenu(int itemCount, boolean systemOverlay) {
+        final FloatingActionButton.Builder buttonBuilder = new FloatingActionButton.Builder(activity);
+        if(systemOverlay) {
+            buttonBuilder.setSystemOverlay(true)
+                    .setLayoutParams(FloatingActionButton.Builder.getDefaultSystemWindowParams(activity));
+        }
+        final FloatingActionButton button = buttonBuilder.build();
+
+        final SubActionButton.Builder itemBuilder = new SubActionButton.Builder(activity);
+        final FloatingActionMenu.Builder menuBuilder = new FloatingActionMenu.Builder(activity, systemOverlay)
+                .setStartAngle(0)
+                .setEndAngle(360)
+                .attachTo(button);
+        for(int i = 0; i < itemCount; i++) {
+            menuBuilder.addSubActionView(itemBuilder.build());
+        }
+        final FloatingActionMenu menu = menuBuilder.build();
+        flush();
+        return menu;
+    }
+
+    /**
+     * Items outside the window are culled, so only the others are attached and detached.
+     */
+    private static int getVisibleItemCount(FloatingActionMenu menu) {
+        int count = 0;
+        for(FloatingActionMenu.Item item : menu.getSubActionItems()) {
+            if(!item.culled) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertOpenWindowOperations(MenuOperationCounter counter, boolean systemOverlay) {
+        if(systemOverlay) {
+            assertEquals(MenuPerformanceBudget.OVERLAY_OPEN_ADD_VIEW, counter.addView);
+            assertEquals(MenuPerformanceBudget.OVERLAY_OPEN_UPDATE_VIEW_LAYOUT, counter.updateViewLayout);
+            assertEquals(0, counter.removeView);
+        }
+        else {
+            assertEquals(MenuPerformanceBudget.ACTIVITY_WINDOW_OPERATIONS, counter.windowOperations());
+        }
+    }
+
+    private static void assertCloseWindowOperations(MenuOperationCounter counter, boolean systemOverlay) {
+        if(systemOverlay) {
+            assertEquals(0, counter.addView);
+            assertEquals(0, counter.updateViewLayout);
+            assertEquals(MenuPerformanceBudget.OVERLAY_CLOSE_REMOVE_VIEW, counter.removeView);
+        }
+        else {
+            assertEquals(MenuPerformanceBudget.ACTIVITY_WINDOW_OPERATIONS, counter.windowOperations());
+        }
+    }
+
+    /**
+     * The counts reported through the metrics must match what actually reached the WindowManager.
+     */
+    private void assertRecorded(MenuOperationCounter counter) {
+        assertEquals(windowManager.getAddViewCount(), counter.addView);
+        assertEquals(windowManager.getUpdateViewLayoutCount(), counter.updateViewLayout);
+        assertEquals(windowManager.getRemoveViewCount(), counter.removeView);
+    }
+
+    private static void assertWithinBudget(String scenario, long bytes, long budget) {
+        assertTrue(scenario + " allocated " + bytes + " bytes, the budget is " + budget, bytes <= budget);
+    }
+
+    /**
+     * Runs everything that was posted to the paused main looper, including animation frames.
+     */
+    private static void flush() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        if(!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if(!threadBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threadBean) {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.app.Activity;
+import android.graphics.Point;
+import android.os.Build;
+
+import com.oguzdev.circularfloatingactionmenu.library.animation.DefaultAnimationHandler;
+import com.oguzdev.circularfloatingactionmenu.library.animation.MenuAnimationHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cancels running transitions while a command is queued, and checks that each transition
+ * is completed exactly once before the queued command runs.
+ * Also checks that a {@link MenuGroup} closes the menu, or cancels its queued opening, when another one opens,
+ * and that moving the menu to another main action view ends its transition right away.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class FloatingActionMenuTransitionTest {
+
+    private static final int ITEM_COUNT = 3;
+
+    private Activity activity;
+    private ManualAnimationHandler animationHandler;
+    private FloatingActionMenu menu;
+    private int openedCount;
+    private int closedCount;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+        ShadowLooper.pauseMainLooper();
+        animationHandler = new ManualAnimationHandler();
+        menu = buildMenu(animationHandler, new FloatingActionMenu.MenuStateChangeListener() {
+            @Override
+            public void onMenuOpened(FloatingActionMenu menu) {
+                openedCount++;
+            }
+
+            @Override
+            public void onMenuClosed(FloatingActionMenu menu) {
+                closedCount++;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void cancelledOpeningRunsTheQueuedCloseOnce() {
+        menu.open(true);
+        assertEquals(FloatingActionMenu.State.OPENING, menu.getState());
+        final ValueAnimator opening = animationHandler.animator;
+        menu.close(true);
+        assertEquals(FloatingActionMenu.State.OPENING, menu.getState());
+
+        opening.cancel();
+        // The opening is completed once, and the queued close is now running
+        assertEquals(FloatingActionMenu.State.CLOSING, menu.getState());
+        assertTrue(animationHandler.isAnimating());
+        assertEquals(1, animationHandler.openingsRestored);
+        assertEquals(1, openedCount);
+        assertEquals(1, closedCount);
+
+        flush();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertFalse(animationHandler.isAnimating());
+        assertEquals(1, animationHandler.closingsRestored);
+        assertItemsAttached(false);
+    }
+
+    @Test
+    public void cancelledClosingRunsTheQueuedOpenOnce() {
+        menu.open(true);
+        flush();
+        assertEquals(FloatingActionMenu.State.OPEN, menu.getState());
+
+        menu.close(true);
+        final ValueAnimator closing = animationHandler.animator;
+        menu.open(true);
+        assertEquals(FloatingActionMenu.State.CLOSING, menu.getState());
+
+        closing.cancel();
+        assertEquals(FloatingActionMenu.State.OPENING, menu.getState());
+        assertTrue(animationHandler.isAnimating());
+        assertEquals(1, animationHandler.closingsRestored);
+
+        flush();
+        assertEquals(FloatingActionMenu.State.OPEN, menu.getState());
+        assertFalse(animationHandler.isAnimating());
+        assertEquals(2, animationHandler.openingsRestored);
+        assertEquals(2, openedCount);
+        assertEquals(1, closedCount);
+        assertItemsAttached(true);
+    }
+
+    @Test
+    public void cancelledOpeningWithoutQueuedCommandStaysOpen() {
+        menu.open(true);
+        animationHandler.animator.cancel();
+        assertEquals(FloatingActionMenu.State.OPEN, menu.getState());
+        assertFalse(animationHandler.isAnimating());
+        assertEquals(1, animationHandler.openingsRestored);
+
+        flush();
+        assertEquals(FloatingActionMenu.State.OPEN, menu.getState());
+        assertEquals(1, animationHandler.openingsRestored);
+    }
+
+    @Test
+    public void groupClosesThePreviousMenuAsTheNextOneOpens() {
+        final FloatingActionMenu other = buildMenu(new ManualAnimationHandler(), null);
+        final MenuGroup group = new MenuGroup().add(menu).add(other);
+        menu.open(true);
+        flush();
+
+        other.open(false);
+        // Not animated, like the opening of the other menu
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertSame(other, group.getOpenMenu());
+    }
+
+    @Test
+    public void groupCancelsTheQueuedOpeningOfAClosingMenu() {
+        final FloatingActionMenu other = buildMenu(new ManualAnimationHandler(), null);
+        final MenuGroup group = new MenuGroup().add(menu).add(other);
+        menu.open(true);
+        flush();
+        menu.close(true);
+        menu.open(true);
+        assertSame(menu, group.getOpenMenu());
+
+        other.open(false);
+        assertSame(other, group.getOpenMenu());
+        flush();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertEquals(FloatingActionMenu.State.OPEN, other.getState());
+        assertSame(other, group.getOpenMenu());
+    }
+
+    @Test
+    public void attachToAnotherViewEndsTheOpening() {
+        menu.open(true);
+        menu.close(true);
+        final FloatingActionButton button = new FloatingActionButton.Builder(activity).build();
+        menu.attachTo(button);
+        // The opening is completed, the queued close is dropped, and the menu is closed right away
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertFalse(animationHandler.isAnimating());
+        assertEquals(1, animationHandler.openingsRestored);
+        assertSame(button, menu.getMainActionView());
+        assertItemsAttached(false);
+
+        flush();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertEquals(1, animationHandler.openingsRestored);
+        assertEquals(0, animationHandler.closingsRestored);
+
+        menu.open(false);
+        assertEquals(FloatingActionMenu.State.OPEN, menu.getState());
+        assertItemsAttached(true);
+    }
+
+    @Test
+    public void detachEndsTheClosing() {
+        menu.open(true);
+        flush();
+        menu.close(true);
+        menu.open(true);
+        menu.detach();
+        // The closing is completed and the queued open is dropped
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertFalse(animationHandler.isAnimating());
+        assertEquals(1, animationHandler.closingsRestored);
+        assertNull(menu.getMainActionView());
+        assertItemsAttached(false);
+
+        flush();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertEquals(1, animationHandler.openingsRestored);
+        assertEquals(1, animationHandler.closingsRestored);
+    }
+
+    @Test
+    public void detachDoesNotWaitForAnimationsItCannotCancel() {
+        animationHandler.cancellable = false;
+        menu.open(true);
+        flush();
+        menu.close(true);
+        menu.detach();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertItemsAttached(false);
+
+        // The late animation finds the items removed already
+        flush();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertEquals(1, animationHandler.closingsRestored);
+        assertEquals(1, closedCount);
+    }
+
+    @Test
+    public void detachEndsTheDefaultAnimations() {
+        for(boolean systemOverlay : new boolean[] {false, true}) {
+            for(boolean opening : new boolean[] {true, false}) {
+                final DefaultAnimationHandler defaultHandler = new DefaultAnimationHandler();
+                final FloatingActionMenu defaultMenu = buildMenu(defaultHandler, null, systemOverlay);
+                defaultMenu.open(true);
+                if(!opening) {
+                    flush();
+                    defaultMenu.close(true);
+                }
+                defaultMenu.detach();
+                assertEquals(FloatingActionMenu.State.CLOSED, defaultMenu.getState());
+                assertFalse(defaultHandler.isAnimating());
+                for(FloatingActionMenu.Item item : defaultMenu.getSubActionItems()) {
+                    assertNull(item.view.getParent());
+                }
+                if(systemOverlay) {
+                    assertNull(defaultMenu.getOverlayContainer().getParent());
+                }
+                flush();
+                assertEquals(FloatingActionMenu.State.CLOSED, defaultMenu.getState());
+            }
+        }
+    }
+
+    private FloatingActionMenu buildMenu(MenuAnimationHandler animationHandler,
+                                         FloatingActionMenu.MenuStateChangeListener stateChangeListener) {
+        return buildMenu(animationHandler, stateChangeListener, false);
+    }
+
+    private FloatingActionMenu buildMenu(MenuAnimationHandler animationHandler,
+                                         FloatingActionMenu.MenuStateChangeListener stateChangeListener,
+                                         boolean systemOverlay) {
+        final FloatingActionButton.Builder buttonBuilder = new FloatingActionButton.Builder(activity);
+        if(systemOverlay) {
+            buttonBuilder.setSystemOverlay(true)
+                    .setLayoutParams(FloatingActionButton.Builder.getDefaultSystemWindowParams(activity));
+        }
+        final FloatingActionButton button = buttonBuilder.build();
+        final SubActionButton.Builder itemBuilder = new SubActionButton.Builder(activity);
+        final FloatingActionMenu.Builder menuBuilder = new FloatingActionMenu.Builder(activity, systemOverlay)
+                .setAnimationHandler(animationHandler)
+                .setStateChangeListener(stateChangeListener)
+                .attachTo(button);
+        for(int i = 0; i < ITEM_COUNT; i++) {
+            menuBuilder.addSubActionView(itemBuilder.build());
+        }
+        final FloatingActionMenu newMenu = menuBuilder.build();
+        flush();
+        return newMenu;
+    }
+
+    private void assertItemsAttached(boolean attached) {
+        for(FloatingActionMenu.Item item : menu.getSubActionItems()) {
+            if(attached) {
+                assertNotNull(item.view.getParent());
+            }
+            else {
+                assertNull(item.view.getParent());
+            }
+        }
+    }
+
+    /**
+     * Runs everything that was posted to the paused main looper, including animation frames.
+     */
+    private static void flush() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    /**
+     * Animates each transition with a single ValueAnimator that the test can cancel,
+     * and counts how many times the items were restored after it.
+     */
+    private static class ManualAnimationHandler extends MenuAnimationHandler {
+
+        private boolean animating;
+        /** whether the animations are started through startAnimation, so that the menu can cancel them */
+        boolean cancellable = true;
+        ValueAnimator animator;
+        int openingsRestored;
+        int closingsRestored;
+
+        @Override
+        public void animateMenuOpening(Point center) {
+            super.animateMenuOpening(center);
+            start(ActionType.OPENING);
+        }
+
+        @Override
+        public void animateMenuClosing(Point center) {
+            super.animateMenuClosing(center);
+            start(ActionType.CLOSING);
+        }
+
+        private void start(final ActionType actionType) {
+            setAnimating(true);
+            animator = ValueAnimator.ofFloat(0, 1);
+            animator.setDuration(500);
+            animator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if(actionType == ActionType.OPENING) {
+                        openingsRestored++;
+                    }
+                    else {
+                        closingsRestored++;
+                    }
+                    for(FloatingActionMenu.Item item : menu.getSubActionItems()) {
+                        if(!item.culled) {
+                            restoreSubActionViewAfterAnimation(item, actionType);
+                        }
+                    }
+                }
+            });
+            animator.addListener(new LastAnimationListener());
+            if(cancellable) {
+                startAnimation(animator);
+            }
+            else {
+                animator.start();
+            }
+        }
+
+        @Override
+        public boolean isAnimating() {
+            return animating;
+        }
+
+        @Override
+        protected void setAnimating(boolean animating) {
+            this.animating = animating;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.view.View;
+
+/**
+ * Sums the window operations reported by a menu's {@link MenuMetricsTracker}
+ * and counts the attach/detach events of its item views.
+ */
+class MenuOperationCounter implements MenuMetricsListener, View.OnAttachStateChangeListener {
+
+    int interactions;
+    int addView;
+    int updateViewLayout;
+    int removeView;
+    int attached;
+    int detached;
+
+    /**
+     * Starts counting the operations of the given menu.
+     * @param menu the menu to observe
+     * @return the counter itself
+     */
+    MenuOperationCounter observe(FloatingActionMenu menu) {
+        menu.setMetricsListener(this);
+        for(int i = 0; i < menu.getSubActionItems().size(); i++) {
+            menu.getSubActionItems().get(i).view.addOnAttachStateChangeListener(this);
+        }
+        return this;
+    }
+
+    void reset() {
+        interactions = 0;
+        addView = 0;
+        updateViewLayout = 0;
+        removeView = 0;
+        attached = 0;
+        detached = 0;
+    }
+
+    int windowOperations() {
+        return addView + updateViewLayout + removeView;
+    }
+
+    @Override
+    public void onMetricsReported(MenuMetrics metrics) {
+        interactions++;
+        addView += metrics.getAddViewCount();
+        updateViewLayout += metrics.getUpdateViewLayoutCount();
+        removeView += metrics.getRemoveViewCount();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+        attached++;
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        detached++;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+/**
+ * The committed budgets of {@link FloatingActionMenuPerformanceTest}.
+ * The window operations are exact counts, since every opening and closing goes through the same calls.
+ * Lowering a number here is always welcome; raising one needs a reason in the commit message.
+ */
+final class MenuPerformanceBudget {
+
+    /** A system overlay menu adds its overlay container to the window once per opening */
+    static final int OVERLAY_OPEN_ADD_VIEW = 1;
+    /** ...and moves the main action view above it */
+    static final int OVERLAY_OPEN_UPDATE_VIEW_LAYOUT = 1;
+    /** A system overlay menu removes its overlay container once per closing */
+    static final int OVERLAY_CLOSE_REMOVE_VIEW = 1;
+    /** A menu in an Activity never talks to the WindowManager */
+    static final int ACTIVITY_WINDOW_OPERATIONS = 0;
+
+    /**
+     * Allocation budgets, in bytes, measured on the JVM under Robolectric 3.0 (largest of three runs):
+     * <pre>
+     * items   open/close   updateItemPositions
+     *     1       62640         4592
+     *     3      186080         6784
+     *     8      502720        12328
+     *    20     1459216        25672
+     * </pre>
+     * Each budget is a line over those points that leaves at least 20% of headroom for every item count,
+     * so that run-to-run noise passes and a new per-item allocation does not.
+     * Robolectric shadows allocate more than the framework does on a device.
+     */
+    static final long UPDATE_ITEM_POSITIONS_BASE_BYTES = 4 * 1024;
+    static final long UPDATE_ITEM_POSITIONS_BYTES_PER_ITEM = 1536;
+    static final long OPEN_CLOSE_BASE_BYTES = 16 * 1024;
+    static final long OPEN_CLOSE_BYTES_PER_ITEM = 90 * 1024;
+
+    private MenuPerformanceBudget() {
+    }
+}
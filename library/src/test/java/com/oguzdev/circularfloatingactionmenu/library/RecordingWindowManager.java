@@ -0,0 +1,193 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.content.Context;
+import android.view.Display;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A WindowManager that counts every window operation, so that tests can measure
+ * exactly how many of them a scenario issues.
+ * Operations are forwarded to a delegate if there is one. Without a delegate the windows are only kept
+ * in memory, which makes it possible to replay interactions headlessly, and the views see the given Display,
+ * e.g. the Robolectric shadow of the default display.
+ * An updateViewLayout call with the same WindowManager.LayoutParams values as before is counted as redundant,
+ * since it costs a round trip to the window manager without moving anything.
+ */
+class RecordingWindowManager implements WindowManager {
+
+    private final WindowManager delegate;
+    private final Display display;
+    /** the last layout params of each window, copied so that later changes of the caller's object are detected */
+    private final IdentityHashMap<View, ViewGroup.LayoutParams> windows;
+
+    private int addViewCount;
+    private int updateViewLayoutCount;
+    private int redundantUpdateViewLayoutCount;
+    private int removeViewCount;
+    private int removeViewImmediateCount;
+
+    /**
+     * @param delegate the WindowManager that actually performs the operations
+     */
+    RecordingWindowManager(WindowManager delegate) {
+        this(delegate, delegate.getDefaultDisplay());
+    }
+
+    /**
+     * Creates a recorder that keeps the windows in memory only.
+     * @param display the display that the views see
+     */
+    RecordingWindowManager(Display display) {
+        this(null, display);
+    }
+
+    private RecordingWindowManager(WindowManager delegate, Display display) {
+        if(display == null) {
+            throw new NullPointerException("A RecordingWindowManager needs a Display for the views to measure.");
+        }
+        this.delegate = delegate;
+        this.display = display;
+        this.windows = new IdentityHashMap<View, ViewGroup.LayoutParams>();
+    }
+
+    /**
+     * @param recorder the recorder to share
+     * @return a factory that returns the given recorder for every context,
+     * to be passed to {@link WindowManagers#setFactory(WindowManagerFactory)}
+     */
+    static WindowManagerFactory factory(final RecordingWindowManager recorder) {
+        return new WindowManagerFactory() {
+            @Override
+            public WindowManager getWindowManager(Context context) {
+                return recorder;
+            }
+        };
+    }
+
+    @Override
+    public void addView(View view, ViewGroup.LayoutParams params) {
+        addViewCount++;
+        windows.put(view, copy(params));
+        if(delegate != null) {
+            delegate.addView(view, params);
+        }
+    }
+
+    @Override
+    public void updateViewLayout(View view, ViewGroup.LayoutParams params) {
+        updateViewLayoutCount++;
+        final ViewGroup.LayoutParams last = windows.get(view);
+        if(last instanceof WindowManager.LayoutParams && params instanceof WindowManager.LayoutParams) {
+            // copyFrom returns the set of changed fields
+            if(((WindowManager.LayoutParams) last).copyFrom((WindowManager.LayoutParams) params) == 0) {
+                redundantUpdateViewLayoutCount++;
+            }
+        }
+        else {
+            windows.put(view, copy(params));
+        }
+        if(delegate != null) {
+            delegate.updateViewLayout(view, params);
+        }
+    }
+
+    @Override
+    public void removeView(View view) {
+        removeViewCount++;
+        windows.remove(view);
+        if(delegate != null) {
+            delegate.removeView(view);
+        }
+    }
+
+    @Override
+    public void removeViewImmediate(View view) {
+        removeViewImmediateCount++;
+        windows.remove(view);
+        if(delegate != null) {
+            delegate.removeViewImmediate(view);
+        }
+    }
+
+    @Override
+    public Display getDefaultDisplay() {
+        return display;
+    }
+
+    /**
+     * Clears the counters, but keeps the windows that are currently added.
+     */
+    void reset() {
+        addViewCount = 0;
+        updateViewLayoutCount = 0;
+        redundantUpdateViewLayoutCount = 0;
+        removeViewCount = 0;
+        removeViewImmediateCount = 0;
+    }
+
+    int getAddViewCount() {
+        return addViewCount;
+    }
+
+    int getUpdateViewLayoutCount() {
+        return updateViewLayoutCount;
+    }
+
+    /**
+     * @return the number of updateViewLayout calls that did not change any layout param
+     */
+    int getRedundantUpdateViewLayoutCount() {
+        return redundantUpdateViewLayoutCount;
+    }
+
+    /**
+     * @return the number of removeView and removeViewImmediate calls
+     */
+    int getRemoveViewCount() {
+        return removeViewCount + removeViewImmediateCount;
+    }
+
+    int getRemoveViewImmediateCount() {
+        return removeViewImmediateCount;
+    }
+
+    /**
+     * @return the number of all the window operations
+     */
+    int getOperationCount() {
+        return addViewCount + updateViewLayoutCount + removeViewCount + removeViewImmediateCount;
+    }
+
+    /**
+     * @return the views that are currently added
+     */
+    List<View> getViews() {
+        return new ArrayList<View>(windows.keySet());
+    }
+
+    /**
+     * @param view a view that is currently added
+     * @return a copy of the last layout params given for the view, or null
+     */
+    ViewGroup.LayoutParams getLayoutParams(View view) {
+        return windows.get(view);
+    }
+
+    private static ViewGroup.LayoutParams copy(ViewGroup.LayoutParams params) {
+        if(params instanceof WindowManager.LayoutParams) {
+            final WindowManager.LayoutParams copy = new WindowManager.LayoutParams();
+            copy.copyFrom((WindowManager.LayoutParams) params);
+            return copy;
+        }
+        return new ViewGroup.LayoutParams(params);
+    }
+}
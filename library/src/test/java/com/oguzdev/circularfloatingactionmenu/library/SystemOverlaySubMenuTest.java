@@ -0,0 +1,176 @@
+/*
+ *   Copyright 2014 Oguz Bilgener
+ */
+package com.oguzdev.circularfloatingactionmenu.library;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Opens child menus of a system overlay menu, and checks that their items are added to the overlay container
+ * of the parent, which covers the items of both menus while the child is open and shrinks back when it closes.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.LOLLIPOP)
+public class SystemOverlaySubMenuTest {
+
+    private static final int ITEM_COUNT = 3;
+
+    private Activity activity;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void childItemsShareTheContainerOfTheParent() {
+        final FloatingActionMenu menu = buildMenu(false);
+        menu.open(false);
+        final FrameLayout container = menu.getOverlayContainer();
+        final int width = getContainerParams(menu).width;
+        final int height = getContainerParams(menu).height;
+
+        menu.getSubActionItems().get(0).view.performClick();
+        final FloatingActionMenu subMenu = menu.getOpenSubMenu();
+        assertNotNull(subMenu);
+        assertTrue(subMenu.isSystemOverlay());
+        assertSame(container, subMenu.getOverlayContainer());
+        assertEquals(FloatingActionMenu.State.OPEN, subMenu.getState());
+        assertItemsInContainer(menu);
+        assertItemsInContainer(subMenu);
+
+        subMenu.close(false);
+        assertNotNull(container.getParent());
+        assertEquals(width, getContainerParams(menu).width);
+        assertEquals(height, getContainerParams(menu).height);
+        assertItemsInContainer(menu);
+        assertItemsDetached(subMenu);
+
+        subMenu.open(false);
+        menu.close(false);
+        assertEquals(FloatingActionMenu.State.CLOSED, subMenu.getState());
+        assertItemsDetached(menu);
+        assertItemsDetached(subMenu);
+        assertNull(container.getParent());
+    }
+
+    @Test
+    public void animatedChildClosesWithTheParent() {
+        final FloatingActionMenu menu = buildMenu(true);
+        menu.open(true);
+        flush();
+        menu.getSubActionItems().get(0).view.performClick();
+        flush();
+        final FloatingActionMenu subMenu = menu.getOpenSubMenu();
+        assertEquals(FloatingActionMenu.State.OPEN, subMenu.getState());
+        assertItemsInContainer(menu);
+        assertItemsInContainer(subMenu);
+
+        menu.close(true);
+        flush();
+        assertEquals(FloatingActionMenu.State.CLOSED, menu.getState());
+        assertEquals(FloatingActionMenu.State.CLOSED, subMenu.getState());
+        assertItemsDetached(menu);
+        assertItemsDetached(subMenu);
+        assertNull(menu.getOverlayContainer().getParent());
+
+        // The container is added again for the next opening
+        menu.open(false);
+        assertNotNull(menu.getOverlayContainer().getParent());
+        assertItemsInContainer(menu);
+    }
+
+    private FloatingActionMenu buildMenu(boolean animated) {
+        final FloatingActionButton button = new FloatingActionButton.Builder(activity)
+                .setSystemOverlay(true)
+                .setLayoutParams(FloatingActionButton.Builder.getDefaultSystemWindowParams(activity))
+                .build();
+        final SubActionButton.Builder itemBuilder = new SubActionButton.Builder(activity);
+        final FloatingActionMenu.Builder menuBuilder = new FloatingActionMenu.Builder(activity, true)
+                .setRadius(200)
+                .attachTo(button);
+        if(!animated) {
+            menuBuilder.disableAnimations();
+        }
+        menuBuilder.addSubActionView(itemBuilder.build(), new FloatingActionMenu.SubMenuProvider() {
+            @Override
+            public FloatingActionMenu.Builder onCreateSubMenu(FloatingActionMenu parent, FloatingActionMenu.Item item) {
+                final FloatingActionMenu.Builder subMenuBuilder = new FloatingActionMenu.Builder(activity)
+                        .setStartAngle(0)
+                        .setEndAngle(90)
+                        .setRadius(300);
+                for(int i = 0; i < ITEM_COUNT; i++) {
+                    subMenuBuilder.addSubActionView(new SubActionButton.Builder(activity).build());
+                }
+                return subMenuBuilder;
+            }
+        });
+        for(int i = 1; i < ITEM_COUNT; i++) {
+            menuBuilder.addSubActionView(itemBuilder.build());
+        }
+        final FloatingActionMenu menu = menuBuilder.build();
+        flush();
+        return menu;
+    }
+
+    private static WindowManager.LayoutParams getContainerParams(FloatingActionMenu menu) {
+        return (WindowManager.LayoutParams) menu.getOverlayContainer().getLayoutParams();
+    }
+
+    /**
+     * Checks that the items are inside the container, at their calculated place on the screen.
+     */
+    private static void assertItemsInContainer(FloatingActionMenu menu) {
+        final WindowManager.LayoutParams containerParams = getContainerParams(menu);
+        for(FloatingActionMenu.Item item : menu.getSubActionItems()) {
+            if(item.culled) {
+                continue;
+            }
+            assertSame(menu.getOverlayContainer(), item.view.getParent());
+            final FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) item.view.getLayoutParams();
+            final int x = containerParams.x + params.leftMargin;
+            final int y = containerParams.y + params.topMargin;
+            assertEquals(item.x, x);
+            assertEquals(item.y, y);
+            assertTrue(x >= containerParams.x && x + item.width <= containerParams.x + containerParams.width);
+            assertTrue(y >= containerParams.y && y + item.height <= containerParams.y + containerParams.height);
+        }
+    }
+
+    private static void assertItemsDetached(FloatingActionMenu menu) {
+        for(FloatingActionMenu.Item item : menu.getSubActionItems()) {
+            assertNull(item.view.getParent());
+        }
+    }
+
+    /**
+     * Runs everything that was posted to the paused main looper, including animation frames.
+     */
+    private static void flush() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+}
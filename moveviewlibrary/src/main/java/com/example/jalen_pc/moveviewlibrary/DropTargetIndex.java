@@ -0,0 +1,190 @@
+/**
+ * Copyright 2015 RECRUIT LIFESTYLE CO., LTD.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.jalen_pc.moveviewlibrary;
+
+/**
+ * ドロップ先の当たり判定を行うための均一グリッドです。
+ * レイアウト・画面構成が変わった時のみ再構築し、移動中の判定は1セル分の候補のみをチェックします。
+ * 座標系はFloatingViewと同じく左下原点です。
+ */
+class DropTargetIndex {
+
+    /**
+     * ドロップ先がないことを表す定数
+     */
+    static final int NO_TARGET = -1;
+
+    /**
+     * 空のセル
+     */
+    private static final int[] EMPTY_CELL = new int[0];
+
+    /**
+     * セルの一辺の長さ(px)
+     */
+    private final int mCellSize;
+
+    /**
+     * 列数
+     */
+    private int mColumns;
+
+    /**
+     * 行数
+     */
+    private int mRows;
+
+    /**
+     * 各セルに重なるドロップ先のインデックス
+     */
+    private int[][] mCells;
+
+    /**
+     * ドロップ先の数
+     */
+    private int mCount;
+
+    /**
+     * ドロップ先のID
+     */
+    private int[] mIds;
+
+    /**
+     * ドロップ先の矩形(left, top, right, bottom)
+     */
+    private int[] mLefts;
+    private int[] mTops;
+    private int[] mRights;
+    private int[] mBottoms;
+
+    /**
+     * コンストラクタ
+     *
+     * @param cellSize セルの一辺の長さ(px)
+     */
+    DropTargetIndex(int cellSize) {
+        mCellSize = Math.max(cellSize, 1);
+        mCells = new int[0][];
+        mIds = new int[0];
+        mLefts = mIds;
+        mTops = mIds;
+        mRights = mIds;
+        mBottoms = mIds;
+    }
+
+    /**
+     * グリッドを再構築します。
+     *
+     * @param width   画面の幅
+     * @param height  画面の高さ
+     * @param count   ドロップ先の数
+     * @param ids     ドロップ先のID
+     * @param lefts   矩形の左端
+     * @param tops    矩形の下端(左下原点のため値の小さい方)
+     * @param rights  矩形の右端
+     * @param bottoms 矩形の上端(左下原点のため値の大きい方)
+     */
+    void rebuild(int width, int height, int count, int[] ids, int[] lefts, int[] tops, int[] rights, int[] bottoms) {
+        mCount = count;
+        mIds = ids;
+        mLefts = lefts;
+        mTops = tops;
+        mRights = rights;
+        mBottoms = bottoms;
+        mColumns = Math.max((width + mCellSize - 1) / mCellSize, 1);
+        mRows = Math.max((height + mCellSize - 1) / mCellSize, 1);
+
+        // セルごとの候補数を数えてから詰める
+        final int[] cellCounts = new int[mColumns * mRows];
+        for (int i = 0; i < count; i++) {
+            for (int row = firstRow(i); row <= lastRow(i); row++) {
+                for (int column = firstColumn(i); column <= lastColumn(i); column++) {
+                    cellCounts[row * mColumns + column]++;
+                }
+            }
+        }
+        mCells = new int[cellCounts.length][];
+        for (int cell = 0; cell < cellCounts.length; cell++) {
+            mCells[cell] = cellCounts[cell] == 0 ? EMPTY_CELL : new int[cellCounts[cell]];
+            cellCounts[cell] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            for (int row = firstRow(i); row <= lastRow(i); row++) {
+                for (int column = firstColumn(i); column <= lastColumn(i); column++) {
+                    final int cell = row * mColumns + column;
+                    mCells[cell][cellCounts[cell]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * 指定した座標を含むドロップ先を探します。
+     * 重なっている場合は後から登録されたものを優先します。
+     *
+     * @param x X座標
+     * @param y Y座標(左下原点)
+     * @return ドロップ先のID。見つからない場合はNO_TARGET
+     */
+    int findTarget(int x, int y) {
+        if (x < 0 || y < 0) {
+            return NO_TARGET;
+        }
+        final int column = x / mCellSize;
+        final int row = y / mCellSize;
+        if (column >= mColumns || row >= mRows) {
+            return NO_TARGET;
+        }
+        final int[] candidates = mCells[row * mColumns + column];
+        for (int i = candidates.length - 1; i >= 0; i--) {
+            final int index = candidates[i];
+            if (x >= mLefts[index] && x < mRights[index] && y >= mTops[index] && y < mBottoms[index]) {
+                return mIds[index];
+            }
+        }
+        return NO_TARGET;
+    }
+
+    /**
+     * 登録されているドロップ先の数を返します。
+     *
+     * @return ドロップ先の数
+     */
+    int size() {
+        return mCount;
+    }
+
+    private int firstColumn(int index) {
+        return clamp(mLefts[index] / mCellSize, mColumns);
+    }
+
+    private int lastColumn(int index) {
+        return clamp((mRights[index] - 1) / mCellSize, mColumns);
+    }
+
+    private int firstRow(int index) {
+        return clamp(mTops[index] / mCellSize, mRows);
+    }
+
+    private int lastRow(int index) {
+        return clamp((mBottoms[index] - 1) / mCellSize, mRows);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.min(Math.max(value, 0), size - 1);
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2015 RECRUIT LIFESTYLE CO., LTD.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.jalen_pc.moveviewlibrary;
+
+/**
+ * FloatingViewManagerに登録したドロップ先のイベントを扱うリスナです。
+ * 判定はFloatingViewの中心座標で行います。
+ */
+public interface DropTargetListener {
+
+    /**
+     * FloatingViewの中心がドロップ先に入った時に通知されます。
+     *
+     * @param targetId ドロップ先のID
+     */
+    void onDropTargetEntered(int targetId);
+
+    /**
+     * FloatingViewの中心がドロップ先から出た時に通知されます。
+     *
+     * @param targetId ドロップ先のID
+     */
+    void onDropTargetExited(int targetId);
+
+    /**
+     * FloatingViewがドロップ先の上で離された時に通知されます。
+     *
+     * @param targetId ドロップ先のID
+     */
+    void onDroppedOnTarget(int targetId);
+}
@@ -17,6 +17,7 @@
 package com.example.jalen_pc.moveviewlibrary;
 
 import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.content.Context;
@@ -27,18 +28,28 @@ import android.graphics.Rect;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Message;
-import android.os.SystemClock;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
 import android.view.WindowManager;
+import android.view.animation.DecelerateInterpolator;
 import android.view.animation.OvershootInterpolator;
 import android.widget.FrameLayout;
 
+import com.oguzdev.circularfloatingactionmenu.core.Easing;
+import com.oguzdev.circularfloatingactionmenu.core.EdgeGeometry;
+import com.oguzdev.circularfloatingactionmenu.core.TouchHistory;
+import com.oguzdev.circularfloatingactionmenu.core.TouchPredictor;
+import com.oguzdev.circularfloatingactionmenu.library.AnimationClocks;
+import com.oguzdev.circularfloatingactionmenu.library.MenuMetrics;
+import com.oguzdev.circularfloatingactionmenu.library.MenuMetricsTracker;
+import com.oguzdev.circularfloatingactionmenu.library.PerfTrace;
+import com.oguzdev.circularfloatingactionmenu.library.WindowManagers;
+
 import java.lang.ref.WeakReference;
 
 /**
@@ -74,10 +85,20 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
     private static final float MOVE_TO_EDGE_OVERSHOOT_TENSION = 1.25f;
 
     /**
-     * FloatingViewの位置決めに利用します。<br/>
-     * 指定時間後に左半分にいるか、右半分にいるかを判定するために利用します。
+     * フリック時の減速モデル(指数減衰)の時定数(秒)<br/>
+     * 離した時の速度v0に対して、最終的な移動量はv0 * 時定数になります。
+     */
+    private static final float FLING_DECAY_TIME_CONSTANT = 0.2f;
+
+    /**
+     * 離した時の速度の計算に使うタッチ履歴の時間範囲
+     */
+    private static final long FLING_VELOCITY_WINDOW_MILLIS = 100L;
+
+    /**
+     * フリックアニメーションの最短時間
      */
-    private static final float SIDE_CHANGE_THRESHOLD_MILLIS = 0.75f;
+    private static final long FLING_MIN_DURATION = 120L;
 
     /**
      * 通常状態
@@ -190,23 +211,80 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
     private int mOverMargin;
 
     /**
-     * VelocityTracker
+     * 過去のサンプルを含むタッチ座標の履歴
+     */
+    private final TouchHistory mTouchHistory;
+
+    /**
+     * 1フレーム先の指の位置を予測するクラス(予測が無効の場合はnull)
      */
-    private VelocityTracker mVelocityTracker;
+    private TouchPredictor mTouchPredictor;
+
+    /**
+     * 予測したスクリーン座標
+     */
+    private final float[] mPredictedTouchPosition = new float[2];
+
+    /**
+     * 離した時の速度(px/ms)
+     */
+    private final float[] mReleaseVelocity = new float[2];
 
     /**
      * 画面上の右側にある場合はtrue
      */
     private boolean mIsOnRight;
 
+    /**
+     * フリックで画面端に移動するフラグ
+     */
+    private boolean mIsFlingEnabled;
+
+    /**
+     * フリックと判定する最低速度(px/s)
+     */
+    private final int mMinimumFlingVelocity;
+
+    /**
+     * 登録先のFloatingViewRegistry(ドラッグのロック状態を共有)
+     */
+    private FloatingViewRegistry mRegistry;
+
+    /**
+     * FloatingViewRegistry内でのインデックス
+     */
+    private int mRegistryIndex = FloatingViewRegistry.NO_INDEX;
+
+    /**
+     * FloatingViewRegistryで割り当てられたID(登録中は変わらない)
+     */
+    private int mRegistryId = FloatingViewRegistry.NO_INDEX;
+
+    /**
+     * ドラッグ操作の計測(WindowManagerの呼び出し回数も記録)
+     */
+    private final MenuMetricsTracker mMetricsTracker;
+
+    /**
+     * 画面端への移動が終わった時に計測を終了するリスナ
+     */
+    private final Animator.AnimatorListener mMoveEdgeAnimatorListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            mMetricsTracker.end();
+        }
+    };
+
     /**
      * コンストラクタ
      *
-     * @param context {@link Context}
+     * @param context        {@link Context}
+     * @param metricsTracker ドラッグ操作の計測
      */
-    FloatingView(final Context context) {
+    FloatingView(final Context context, MenuMetricsTracker metricsTracker) {
         super(context);
-        mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        mMetricsTracker = metricsTracker;
+        mWindowManager = WindowManagers.get(context);
         mParams = new WindowManager.LayoutParams();
         mMetrics = new DisplayMetrics();
         mWindowManager.getDefaultDisplay().getMetrics(mMetrics);
@@ -224,6 +302,8 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
 
         mMoveLimitRect = new Rect();
         mPositionLimitRect = new Rect();
+        mTouchHistory = new TouchHistory(TouchHistory.DEFAULT_CAPACITY);
+        mMinimumFlingVelocity = ViewConfiguration.get(context).getScaledMinimumFlingVelocity();
 
         // ステータスバーの高さを取得
         final Resources resources = context.getResources();
@@ -264,7 +344,7 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
         getViewTreeObserver().removeOnPreDrawListener(this);
         mParams.x = 0;
         mParams.y = mMetrics.heightPixels - mStatusBarHeight - getMeasuredHeight();
-        mWindowManager.updateViewLayout(this, mParams);
+        updateWindowLayout();
         mIsDraggable = true;
         mIsOnRight = false;
         moveToEdge(false);
@@ -304,24 +384,24 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
 
         // 縦横切替の場合
         if (oldScreenWidth != newScreenWidth || oldScreenHeight != newScreenHeight) {
-            // 現在の位置からX座標を設定
-            // 右半分にある場合
-            if (mParams.x > (newScreenWidth - width) / 2) {
-                mParams.x = mPositionLimitRect.right;
-            }
-            // 左半分にある場合
-            else {
-                mParams.x = mPositionLimitRect.left;
-            }
+            // 現在の位置から近い方の画面端にX座標を設定
+            mParams.x = EdgeGeometry.isOnRightHalf(mParams.x, newScreenWidth, width) ? mPositionLimitRect.right : mPositionLimitRect.left;
 
             // スクリーン位置の比率からY座標を設定(四捨五入)
-            final int newY = (int) (mParams.y * mPositionLimitRect.height() / (float) oldPositionLimitHeight + 0.5f);
-            mParams.y = Math.min(Math.max(mPositionLimitRect.top, newY), mPositionLimitRect.bottom);
-            mWindowManager.updateViewLayout(this, mParams);
+            mParams.y = EdgeGeometry.rescalePosition(mParams.y, oldPositionLimitHeight, mPositionLimitRect.top, mPositionLimitRect.bottom);
+            updateWindowLayout();
         }
 
     }
 
+    /**
+     * 現在のLayoutParamsをWindowに反映します。
+     */
+    private void updateWindowLayout() {
+        mWindowManager.updateViewLayout(this, mParams);
+        mMetricsTracker.countUpdateViewLayout();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -338,13 +418,28 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
      */
     @Override
     public boolean dispatchTouchEvent(MotionEvent event) {
+        PerfTrace.beginSection("FloatingView.dispatchTouchEvent");
+        try {
+            return dispatchTouchEventImpl(event);
+        } finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private boolean dispatchTouchEventImpl(MotionEvent event) {
+        // 届いたイベントをそのまま記録(再生時に同じ判定を通すため、表示状態に関わらず記録)
+        final TouchTraceRecorder recorder = mRegistry != null ? mRegistry.getTouchTraceRecorder() : null;
+        if (recorder != null) {
+            recorder.record(mRegistryId, event);
+        }
+
         // Viewが表示されていなければ何もしない
         if (getVisibility() != View.VISIBLE) {
             return true;
         }
 
         // タッチ不能な場合は何もしない
-        if (!mIsDraggable) {
+        if (!isDraggable()) {
             return true;
         }
 
@@ -354,25 +449,24 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
         final int action = event.getAction();
         // 押下
         if (action == MotionEvent.ACTION_DOWN) {
-            // アニメーションのキャンセル
+            // アニメーションのキャンセル(前回の操作の計測も終了)
             cancelAnimation();
+            mMetricsTracker.begin(MenuMetrics.INTERACTION_DRAG);
             mScreenTouchDownX = mScreenTouchX;
             mScreenTouchDownY = mScreenTouchY;
             mLocalTouchX = event.getX();
             mLocalTouchY = event.getY();
             mIsMoveAccept = false;
+            mTouchHistory.clear();
+            addTouchSamples(event);
+            if (mTouchPredictor != null) {
+                mTouchPredictor.reset();
+            }
             setScale(SCALE_PRESSED);
             // タッチトラッキングアニメーションの開始
             mAnimationHandler.updateTouchPosition(getXByTouch(), getYByTouch());
             mAnimationHandler.removeMessages(FloatingAnimationHandler.ANIMATION_IN_TOUCH);
             mAnimationHandler.sendAnimationMessage(FloatingAnimationHandler.ANIMATION_IN_TOUCH);
-            // 速度の取得準備
-            if (mVelocityTracker == null) {
-                mVelocityTracker = VelocityTracker.obtain();
-            } else {
-                mVelocityTracker.clear();
-            }
-            mVelocityTracker.addMovement(event);
             // 押下処理の通過判定のための時間保持
             // mIsDraggableやgetVisibility()のフラグが押下後に変更された場合にMOVE等を処理させないようにするため
             mTouchDownTime = event.getDownTime();
@@ -383,17 +477,22 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
             if (mTouchDownTime != event.getDownTime()) {
                 return true;
             }
+            // まとめて届いた過去のサンプルも履歴に追加
+            addTouchSamples(event);
             final float moveThreshold = MOVE_THRESHOLD_DP * mMetrics.density;
             // 移動受付状態でない、かつX,Y軸ともにしきい値よりも小さい場合
             if (!mIsMoveAccept && Math.abs(mScreenTouchX - mScreenTouchDownX) < moveThreshold && Math.abs(mScreenTouchY - mScreenTouchDownY) < moveThreshold) {
                 return true;
             }
             mIsMoveAccept = true;
-            mAnimationHandler.updateTouchPosition(getXByTouch(), getYByTouch());
-
-            // 速度計算
-            mVelocityTracker.addMovement(event);
-            mVelocityTracker.computeCurrentVelocity(1000);
+            // 最新のサンプル(予測が有効な場合は1フレーム先の予測位置)を追従対象とする
+            if (mTouchPredictor != null && mTouchPredictor.predict(mTouchHistory, mPredictedTouchPosition)) {
+                final int predictedX = EdgeGeometry.clamp(getXByScreenX(mPredictedTouchPosition[0]), mMoveLimitRect.left, mMoveLimitRect.right);
+                final int predictedY = EdgeGeometry.clamp(getYByScreenY(mPredictedTouchPosition[1]), mMoveLimitRect.top, mMoveLimitRect.bottom);
+                mAnimationHandler.updateTouchPosition(predictedX, predictedY);
+            } else {
+                mAnimationHandler.updateTouchPosition(getXByTouch(), getYByTouch());
+            }
         }
         // 押上、キャンセル
         else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
@@ -408,11 +507,17 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
 
             // 動かされていれば画面端に戻す
             if (mIsMoveAccept) {
-                // 速度計算
-                mVelocityTracker.addMovement(event);
-                mVelocityTracker.computeCurrentVelocity(1000);
-                //moveToEdge(mVelocityTracker.getXVelocity(), mVelocityTracker.getYVelocity());
-                moveToEdge(true);
+                // 速度計算(まとめて届いた過去のサンプルを含む履歴から求める)
+                addTouchSamples(event);
+                mTouchHistory.getVelocity(FLING_VELOCITY_WINDOW_MILLIS, mReleaseVelocity);
+                final float velocityX = mReleaseVelocity[0] * 1000;
+                final float velocityY = mReleaseVelocity[1] * 1000;
+                // 十分な速度でフリックされた場合は減速モデルで移動先を決める
+                if (mIsFlingEnabled && Math.hypot(velocityX, velocityY) >= mMinimumFlingVelocity) {
+                    moveToEdge(velocityX, velocityY);
+                } else {
+                    moveToEdge(true);
+                }
             }
             // 動かされていなければ、クリックイベントを発行
             else {
@@ -426,18 +531,31 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
             }
 
 
-            mVelocityTracker.recycle();
-            // nullを入れないと落ちる場合に対処(4.3以下の端末で確認)
-            // http://stackoverflow.com/questions/26074907/velocitytracker-causes-crash-on-android-4-4
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
-                mVelocityTracker = null;
+            // 画面端への移動アニメーションがない場合はここで計測を終了
+            if (mMoveEdgeAnimator == null || !mMoveEdgeAnimator.isStarted()) {
+                mMetricsTracker.end();
             }
-
         }
 
         return super.dispatchTouchEvent(event);
     }
 
+    /**
+     * MotionEventに含まれる過去のサンプルと現在のサンプルを、スクリーン座標に変換して履歴に追加します。
+     *
+     * @param event MotionEvent
+     */
+    private void addTouchSamples(MotionEvent event) {
+        // ローカル座標とスクリーン座標の差(同じイベント内のサンプルでは共通)
+        final float offsetX = event.getRawX() - event.getX();
+        final float offsetY = event.getRawY() - event.getY();
+        final int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            mTouchHistory.add(event.getHistoricalX(i) + offsetX, event.getHistoricalY(i) + offsetY, event.getHistoricalEventTime(i));
+        }
+        mTouchHistory.add(mScreenTouchX, mScreenTouchY, event.getEventTime());
+    }
+
     /**
      * 画面から消す際の処理を表します。
      */
@@ -457,47 +575,45 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
     }
 
     /**
-     * 画面内の定位置に移動します。
+     * 離した時の速度を減速モデルで投影し、到達する側の画面端とY座標に移動します。<br/>
+     * X軸とY軸を1つのアニメーション(vsync同期)で同時に移動させます。
      *
-     * @param velocityX 　X軸の加速度
-     * @param velocityY Y軸の加速度
+     * @param velocityX X軸の速度(px/s)
+     * @param velocityY Y軸の速度(px/s、スクリーン座標のため下方向がプラス)
      */
     private void moveToEdge(float velocityX, float velocityY) {
-        final int currentX = getXByTouch();
-        final int centerOfScreen = (mMetrics.widthPixels - getWidth()) / 2;
-        final int futureX = (int) (velocityX * SIDE_CHANGE_THRESHOLD_MILLIS);
-
-        // TODO:フリックのやり方によってはうまく動作しない場合があるので検討
-        // デフォルト位置をセット
-        boolean isMoveRightEdge = mIsOnRight;
-        // 右側にある場合
-        if (isMoveRightEdge) {
-            // 現在位置が左半分、もしくは速度計算すれば左半分に到達する場合
-            if (currentX < centerOfScreen || currentX + futureX < centerOfScreen) {
-                isMoveRightEdge = false;
-            }
-        }
-        // 左側にある場合
-        else {
-            // 現在位置が右半分、もしくは速度計算すれば右半分に到達する場合
-            if (currentX > centerOfScreen || currentX + futureX > centerOfScreen) {
-                isMoveRightEdge = true;
-            }
-        }
+        // 速度0まで減速した時の到達点(Y座標は左下原点のため速度の向きが逆)
+        final float projectedX = EdgeGeometry.projectFling(getXByTouch(), velocityX, FLING_DECAY_TIME_CONSTANT);
+        final float projectedY = EdgeGeometry.projectFling(getYByTouch(), -velocityY, FLING_DECAY_TIME_CONSTANT);
+        final boolean isMoveRightEdge = EdgeGeometry.isOnRightHalf(projectedX, mMetrics.widthPixels, getWidth());
         final int goalPositionX = isMoveRightEdge ? mPositionLimitRect.right : mPositionLimitRect.left;
+        final int goalPositionY = (int) EdgeGeometry.clamp(projectedY, mPositionLimitRect.top, mPositionLimitRect.bottom);
         mIsOnRight = isMoveRightEdge;
-        mMoveEdgeAnimator = ValueAnimator.ofInt(currentX, goalPositionX);
+        if (mListener != null) {
+            mListener.onMoveToEdge(mIsOnRight, getScreenCenterY(goalPositionY));
+        }
+
+        // 現在の表示位置から移動させる
+        final int startPositionX = mParams.x;
+        final int startPositionY = mParams.y;
+        // DecelerateInterpolatorの初速が離した時の速度と一致する時間(上限は通常の移動時間)
+        final double distance = Math.hypot(goalPositionX - startPositionX, goalPositionY - startPositionY);
+        final double speed = Math.hypot(velocityX, velocityY);
+        final long duration = EdgeGeometry.flingDuration(distance, speed, FLING_MIN_DURATION, MOVE_TO_EDGE_DURATION);
+
+        mMoveEdgeAnimator = ValueAnimator.ofFloat(0.0f, 1.0f);
         mMoveEdgeAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
             public void onAnimationUpdate(ValueAnimator animation) {
-                mParams.x = (Integer) animation.getAnimatedValue();
-                mWindowManager.updateViewLayout(FloatingView.this, mParams);
+                final float fraction = (Float) animation.getAnimatedValue();
+                mParams.x = (int) (startPositionX + (goalPositionX - startPositionX) * fraction);
+                mParams.y = (int) (startPositionY + (goalPositionY - startPositionY) * fraction);
+                updateWindowLayout();
             }
         });
-        // X軸のアニメーション設定
-        mMoveEdgeAnimator.setDuration(MOVE_TO_EDGE_DURATION);
-        // TODO:暫定の実装
-        mMoveEdgeAnimator.setInterpolator(new OvershootInterpolator(Math.min(Math.max(Math.abs(velocityX) / 3000 * 2.0f, MOVE_TO_EDGE_OVERSHOOT_TENSION), 4.0f)));
+        mMoveEdgeAnimator.addListener(mMoveEdgeAnimatorListener);
+        mMoveEdgeAnimator.setDuration(duration);
+        mMoveEdgeAnimator.setInterpolator(new DecelerateInterpolator());
         mMoveEdgeAnimator.start();
         // タッチ座標を初期化
         mLocalTouchX = 0;
@@ -507,6 +623,16 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
         mIsMoveAccept = false;
     }
 
+    /**
+     * 移動後のViewの中心のY座標をスクリーン座標(左上原点)で取得します。
+     *
+     * @param positionY 移動後のWindowのY座標(左下原点)
+     * @return 移動後のViewの中心のY座標
+     */
+    private int getScreenCenterY(int positionY) {
+        return mMetrics.heightPixels - positionY - getHeight() / 2;
+    }
+
     /**
      * 左右の端に移動します。
      *
@@ -517,11 +643,13 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
         // 当前iconView所在位置坐标
         final int currentX = getXByTouch();
         final int currentY = getYByTouch();
-        final boolean isMoveRightEdge = currentX > (mMetrics.widthPixels - getWidth()) / 2;
+        final boolean isMoveRightEdge = EdgeGeometry.isOnRightHalf(currentX, mMetrics.widthPixels, getWidth());
         final int goalPositionX = isMoveRightEdge ? mPositionLimitRect.right : mPositionLimitRect.left;
-        final int goalPositionY = Math.min(Math.max(mPositionLimitRect.top, currentY), mPositionLimitRect.bottom);
+        final int goalPositionY = EdgeGeometry.clamp(currentY, mPositionLimitRect.top, mPositionLimitRect.bottom);
         mIsOnRight = isMoveRightEdge;
-        this.mListener.onMoveToEdge(mIsOnRight, (int) mScreenTouchY);
+        if (mListener != null) {
+            mListener.onMoveToEdge(mIsOnRight, getScreenCenterY(goalPositionY));
+        }
 
         // アニメーションを行う場合
         if (withAnimation) {
@@ -533,9 +661,10 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
                 @Override
                 public void onAnimationUpdate(ValueAnimator animation) {
                     mParams.x = (Integer) animation.getAnimatedValue();
-                    mWindowManager.updateViewLayout(FloatingView.this, mParams);
+                    updateWindowLayout();
                 }
             });
+            mMoveEdgeAnimator.addListener(mMoveEdgeAnimatorListener);
             // X軸のアニメーション設定
             mMoveEdgeAnimator.setDuration(MOVE_TO_EDGE_DURATION);
             mMoveEdgeAnimator.setInterpolator(mMoveEdgeInterpolator);
@@ -545,7 +674,7 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
             if (mParams.x != goalPositionX || mParams.y != goalPositionY) {
                 mParams.x = goalPositionX;
                 mParams.y = goalPositionY;
-                mWindowManager.updateViewLayout(FloatingView.this, mParams);
+                updateWindowLayout();
             }
         }
         // タッチ座標を初期化
@@ -597,6 +726,79 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
         mIsDraggable = isDraggable;
     }
 
+    /**
+     * ドラッグ可能かどうかを返します。
+     * FloatingViewRegistryでロックされている場合もドラッグできません。
+     *
+     * @return ドラッグ可能な場合はtrue
+     */
+    boolean isDraggable() {
+        return mIsDraggable && (mRegistry == null || !mRegistry.isDragLocked());
+    }
+
+    /**
+     * FloatingViewRegistryへの登録状態を設定します。
+     *
+     * @param registry FloatingViewRegistry(登録解除時はnull)
+     * @param index    FloatingViewRegistry内でのインデックス
+     */
+    void setRegistry(FloatingViewRegistry registry, int index) {
+        mRegistry = registry;
+        mRegistryIndex = index;
+    }
+
+    /**
+     * @return FloatingViewRegistry内でのインデックス
+     */
+    int getRegistryIndex() {
+        return mRegistryIndex;
+    }
+
+    /**
+     * @param id FloatingViewRegistryで割り当てられたID
+     */
+    void setRegistryId(int id) {
+        mRegistryId = id;
+    }
+
+    /**
+     * @return FloatingViewRegistryで割り当てられたID
+     */
+    int getRegistryId() {
+        return mRegistryId;
+    }
+
+    /**
+     * フリックで画面端に移動するかどうかを設定します。<br/>
+     * 無効の場合は離した位置から最も近い画面端に移動します。
+     *
+     * @param isFlingEnabled フリックを有効にする場合はtrue
+     */
+    void setFlingEnabled(boolean isFlingEnabled) {
+        mIsFlingEnabled = isFlingEnabled;
+    }
+
+    /**
+     * 指の位置の予測を設定します。<br/>
+     * 有効にすると、直近のタッチ履歴から1フレーム先の位置を予測して追従対象とします。
+     *
+     * @param isEnabled 予測を有効にする場合はtrue
+     */
+    void setTouchPredictionEnabled(boolean isEnabled) {
+        if (!isEnabled) {
+            mTouchPredictor = null;
+        } else if (mTouchPredictor == null) {
+            mTouchPredictor = new TouchPredictor(TouchPredictor.DEFAULT_LOOKAHEAD_MILLIS);
+        }
+    }
+
+    /**
+     * @return 指の位置を予測するクラス(予測が無効の場合はnull)
+     */
+    TouchPredictor getTouchPredictor() {
+        return mTouchPredictor;
+    }
+
     /**
      * Viewの形を表す定数
      *
@@ -648,7 +850,17 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
      * @return FloatingViewのX座標
      */
     private int getXByTouch() {
-        return (int) (mScreenTouchX - mLocalTouchX);
+        return getXByScreenX(mScreenTouchX);
+    }
+
+    /**
+     * スクリーンのX座標から算出されたFloatingViewのX座標
+     *
+     * @param screenX スクリーンのX座標
+     * @return FloatingViewのX座標
+     */
+    private int getXByScreenX(float screenX) {
+        return (int) (screenX - mLocalTouchX);
     }
 
     /**
@@ -657,7 +869,17 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
      * @return FloatingViewのY座標
      */
     private int getYByTouch() {
-        return (int) (mMetrics.heightPixels - (mScreenTouchY - mLocalTouchY + getHeight()));
+        return getYByScreenY(mScreenTouchY);
+    }
+
+    /**
+     * スクリーンのY座標から算出されたFloatingViewのY座標
+     *
+     * @param screenY スクリーンのY座標
+     * @return FloatingViewのY座標
+     */
+    private int getYByScreenY(float screenY) {
+        return (int) (mMetrics.heightPixels - (screenY - mLocalTouchY + getHeight()));
     }
 
     /**
@@ -795,6 +1017,15 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
          */
         @Override
         public void handleMessage(Message msg) {
+            PerfTrace.beginSection("FloatingAnimationHandler.handleMessage");
+            try {
+                handleMessageImpl(msg);
+            } finally {
+                PerfTrace.endSection();
+            }
+        }
+
+        private void handleMessageImpl(Message msg) {
             final FloatingView floatingView = mFloatingView.get();
             if (floatingView == null) {
                 removeMessages(ANIMATION_IN_TOUCH);
@@ -804,66 +1035,51 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
             final int animationCode = msg.what;
             final int animationType = msg.arg1;
             final WindowManager.LayoutParams params = floatingView.mParams;
-            final WindowManager windowManager = floatingView.mWindowManager;
 
             // 状態変更またはアニメーションを開始した場合の初期化
             if (mIsChangeState || animationType == TYPE_FIRST) {
-                // 状態変更時のみアニメーション時間を使う
-                mStartTime = mIsChangeState ? SystemClock.uptimeMillis() : 0;
+                // 状態変更時のみアニメーション時間を使う(それ以外は開始時点で完了済みとして扱う)
+                final long now = AnimationClocks.uptimeMillis();
+                mStartTime = mIsChangeState ? now : now - CAPTURE_DURATION_MILLIS;
                 mStartX = params.x;
                 mStartY = params.y;
                 mStartedCode = animationCode;
                 mIsChangeState = false;
             }
             // 経過時間
-            final float elapsedTime = SystemClock.uptimeMillis() - mStartTime;
+            final float elapsedTime = AnimationClocks.uptimeMillis() - mStartTime;
             final float trackingTargetTimeRate = Math.min(elapsedTime / CAPTURE_DURATION_MILLIS, 1.0f);
 
             // 重なっていない場合のアニメーション
             if (mState == FloatingView.STATE_NORMAL) {
-                final float basePosition = calcAnimationPosition(trackingTargetTimeRate);
+                final float basePosition = Easing.capture(trackingTargetTimeRate);
                 // 画面外へのオーバーを認める
                 final Rect moveLimitRect = floatingView.mMoveLimitRect;
                 // 最終的な到達点
-                final float targetPositionX = Math.min(Math.max(moveLimitRect.left, (int) mTouchPositionX), moveLimitRect.right);
-                final float targetPositionY = Math.min(Math.max(moveLimitRect.top, (int) mTouchPositionY), moveLimitRect.bottom);
-                params.x = (int) (mStartX + (targetPositionX - mStartX) * basePosition);
-                params.y = (int) (mStartY + (targetPositionY - mStartY) * basePosition);
-                windowManager.updateViewLayout(floatingView, params);
-                sendMessageAtTime(newMessage(animationCode, TYPE_UPDATE), SystemClock.uptimeMillis() + ANIMATION_REFRESH_TIME_MILLIS);
+                final float targetPositionX = EdgeGeometry.clamp((int) mTouchPositionX, moveLimitRect.left, moveLimitRect.right);
+                final float targetPositionY = EdgeGeometry.clamp((int) mTouchPositionY, moveLimitRect.top, moveLimitRect.bottom);
+                final int newX = (int) (mStartX + (targetPositionX - mStartX) * basePosition);
+                final int newY = (int) (mStartY + (targetPositionY - mStartY) * basePosition);
+                // 位置が変化した時のみ更新(指が止まっている間はWindowの更新を行わない)
+                if (params.x != newX || params.y != newY) {
+                    params.x = newX;
+                    params.y = newY;
+                    floatingView.updateWindowLayout();
+                }
+                sendMessageDelayed(newMessage(animationCode, TYPE_UPDATE), ANIMATION_REFRESH_TIME_MILLIS);
             }
             // 重なった場合のアニメーション
             else if (mState == FloatingView.STATE_INTERSECTING) {
-                final float basePosition = calcAnimationPosition(trackingTargetTimeRate);
+                final float basePosition = Easing.capture(trackingTargetTimeRate);
                 // 最終的な到達点
                 final float targetPositionX = mTargetPositionX - floatingView.getWidth() / 2;
                 final float targetPositionY = mTargetPositionY - floatingView.getHeight() / 2;
                 // 現在地からの移動
                 params.x = (int) (mStartX + (targetPositionX - mStartX) * basePosition);
                 params.y = (int) (mStartY + (targetPositionY - mStartY) * basePosition);
-                windowManager.updateViewLayout(floatingView, params);
-                sendMessageAtTime(newMessage(animationCode, TYPE_UPDATE), SystemClock.uptimeMillis() + ANIMATION_REFRESH_TIME_MILLIS);
-            }
-
-        }
-
-        /**
-         * アニメーション時間から求められる位置を計算します。
-         *
-         * @param timeRate 時間比率
-         * @return ベースとなる係数(0.0から1.0＋α)
-         */
-        private static float calcAnimationPosition(float timeRate) {
-            final float position;
-            // y=0.55sin(8.0564x-π/2)+0.55
-            if (timeRate <= 0.4) {
-                position = (float) (0.55 * Math.sin(8.0564 * timeRate - Math.PI / 2) + 0.55);
-            }
-            // y=4(0.417x-0.341)^2-4(0.417-0.341)^2+1
-            else {
-                position = (float) (4 * Math.pow(0.417 * timeRate - 0.341, 2) - 4 * Math.pow(0.417 - 0.341, 2) + 1);
+                floatingView.updateWindowLayout();
+                sendMessageDelayed(newMessage(animationCode, TYPE_UPDATE), ANIMATION_REFRESH_TIME_MILLIS);
             }
-            return position;
         }
 
         /**
@@ -873,7 +1089,7 @@ class FloatingView extends FrameLayout implements ViewTreeObserver.OnPreDrawList
          * @param delayMillis メッセージの送信時間
          */
         void sendAnimationMessageDelayed(int animation, long delayMillis) {
-            sendMessageAtTime(newMessage(animation, TYPE_FIRST), SystemClock.uptimeMillis() + delayMillis);
+            sendMessageDelayed(newMessage(animation, TYPE_FIRST), delayMillis);
         }
 
         /**
@@ -23,15 +23,24 @@ import android.graphics.drawable.Drawable;
 import android.os.Vibrator;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewTreeObserver;
 import android.view.WindowManager;
-import android.widget.ImageView;
 
+import com.oguzdev.circularfloatingactionmenu.core.TouchPredictor;
+import com.oguzdev.circularfloatingactionmenu.core.TrashGeometry;
 import com.oguzdev.circularfloatingactionmenu.library.FloatingActionMenu;
+import com.oguzdev.circularfloatingactionmenu.library.MenuMetricsListener;
+import com.oguzdev.circularfloatingactionmenu.library.MenuMetricsTracker;
+import com.oguzdev.circularfloatingactionmenu.library.PerfTrace;
+import com.oguzdev.circularfloatingactionmenu.library.WindowManagers;
 import com.oguzdev.circularfloatingactionmenu.library.SubActionButton;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 
 /**
@@ -69,6 +78,11 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      */
     public static final float SHAPE_RECTANGLE = 1.4142f;
 
+    /**
+     * ドロップ先の当たり判定グリッドのセルの大きさ(dp)
+     */
+    private static final int DROP_TARGET_CELL_SIZE_DP = 48;
+
     /**
      * Context
      */
@@ -126,10 +140,59 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
     private int mDisplayMode;
 
     /**
-     * Windowに貼り付けられたFloatingViewのリスト
-     * TODO:第2弾のFloatingViewの複数表示で意味を発揮する予定
+     * Windowに貼り付けられたFloatingView
+     */
+    private final FloatingViewRegistry mFloatingViewRegistry;
+
+    /**
+     * 登録されたドロップ先
+     */
+    private final ArrayList<DropTarget> mDropTargetList;
+
+    /**
+     * ドロップ先の当たり判定用グリッド
+     */
+    private final DropTargetIndex mDropTargetIndex;
+
+    /**
+     * グリッドを構築した時の画面サイズ
+     */
+    private final DisplayMetrics mDropTargetMetrics;
+
+    /**
+     * 現在FloatingViewが重なっているドロップ先のID
+     */
+    private int mCurrentDropTargetId;
+
+    /**
+     * DropTargetListener
+     */
+    private DropTargetListener mDropTargetListener;
+
+    /**
+     * フリックで画面端に移動するフラグ
+     */
+    private boolean mIsFlingEnabled;
+
+    /**
+     * 指の位置を予測するフラグ
+     */
+    private boolean mIsTouchPredictionEnabled;
+
+    /**
+     * ドラッグ操作の計測(全てのFloatingViewとTrashViewで共有)
+     */
+    private final MenuMetricsTracker mMetricsTracker;
+
+    /**
+     * タッチイベントの記録(記録していない場合はnull)
      */
-    private final ArrayList<FloatingView> mFloatingViewList;
+    private TouchTraceRecorder mTouchTraceRecorder;
+
+    /**
+     * 実時間で再生中のタッチトレース(再生していない場合はnull)
+     */
+    private TouchTraceReplayer mTouchTraceReplayer;
 
     /**
      * 构造函数
@@ -139,7 +202,7 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      */
     public FloatingViewManager(Context context, FloatingViewListener listener) {
         mContext = context;
-        mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        mWindowManager = WindowManagers.get(context);
         mFloatingViewListener = listener;
         mFloatingViewRect = new Rect();
         mTrashViewRect = new Rect();
@@ -148,9 +211,14 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         mDisplayMode = DISPLAY_MODE_HIDE_FULLSCREEN;
 
         // FloatingViewと連携するViewの構築
-        mFloatingViewList = new ArrayList<>();
+        mFloatingViewRegistry = new FloatingViewRegistry();
+        mDropTargetList = new ArrayList<>();
+        mDropTargetMetrics = new DisplayMetrics();
+        mDropTargetIndex = new DropTargetIndex((int) (DROP_TARGET_CELL_SIZE_DP * context.getResources().getDisplayMetrics().density));
+        mCurrentDropTargetId = DropTargetIndex.NO_TARGET;
+        mMetricsTracker = new MenuMetricsTracker();
         mFullscreenObserverView = new FullscreenObserverView(context, this);
-        mTrashView = new TrashView(context);
+        mTrashView = new TrashView(context, mMetricsTracker);
     }
 
     /**
@@ -162,7 +230,80 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         // INFO:TrashViewとFloatingViewは同じGravityにする必要があります
         mTrashView.getWindowDrawingRect(mTrashViewRect);
         mTargetFloatingView.getWindowDrawingRect(mFloatingViewRect);
-        return Rect.intersects(mTrashViewRect, mFloatingViewRect);
+        return TrashGeometry.intersects(mTrashViewRect.left, mTrashViewRect.top, mTrashViewRect.right, mTrashViewRect.bottom,
+                mFloatingViewRect.left, mFloatingViewRect.top, mFloatingViewRect.right, mFloatingViewRect.bottom);
+    }
+
+    /**
+     * FloatingViewの中心と重なっているドロップ先を更新します。
+     * isIntersectWithTrash()で更新されたFloatingViewの矩形を利用します。
+     *
+     * @param isIntersectingTrash 削除Viewと重なっている場合はtrue(削除Viewを優先)
+     */
+    private void updateDropTarget(boolean isIntersectingTrash) {
+        final int targetId = isIntersectingTrash || mDropTargetIndex.size() == 0 ? DropTargetIndex.NO_TARGET
+                : mDropTargetIndex.findTarget(mFloatingViewRect.centerX(), mFloatingViewRect.centerY());
+        if (targetId == mCurrentDropTargetId) {
+            return;
+        }
+        final int oldTargetId = mCurrentDropTargetId;
+        mCurrentDropTargetId = targetId;
+        if (mDropTargetListener != null) {
+            if (oldTargetId != DropTargetIndex.NO_TARGET) {
+                mDropTargetListener.onDropTargetExited(oldTargetId);
+            }
+            if (targetId != DropTargetIndex.NO_TARGET) {
+                mDropTargetListener.onDropTargetEntered(targetId);
+            }
+        }
+    }
+
+    /**
+     * 画面サイズが変わっている場合のみ、ドロップ先のグリッドを再構築します。
+     *
+     * @param force 画面サイズに関わらず再構築する場合はtrue
+     */
+    private void rebuildDropTargetIndex(boolean force) {
+        final int oldWidth = mDropTargetMetrics.widthPixels;
+        final int oldHeight = mDropTargetMetrics.heightPixels;
+        mWindowManager.getDefaultDisplay().getMetrics(mDropTargetMetrics);
+        final int width = mDropTargetMetrics.widthPixels;
+        final int height = mDropTargetMetrics.heightPixels;
+        if (!force && oldWidth == width && oldHeight == height) {
+            return;
+        }
+
+        final int size = mDropTargetList.size();
+        final int[] ids = new int[size];
+        final int[] lefts = new int[size];
+        final int[] tops = new int[size];
+        final int[] rights = new int[size];
+        final int[] bottoms = new int[size];
+        for (int i = 0; i < size; i++) {
+            final DropTarget target = mDropTargetList.get(i);
+            ids[i] = target.id;
+            // X座標
+            final int horizontalGravity = target.gravity & Gravity.HORIZONTAL_GRAVITY_MASK;
+            if (horizontalGravity == Gravity.RIGHT) {
+                lefts[i] = width - target.width - target.offsetX;
+            } else if (horizontalGravity == Gravity.CENTER_HORIZONTAL) {
+                lefts[i] = (width - target.width) / 2 + target.offsetX;
+            } else {
+                lefts[i] = target.offsetX;
+            }
+            // Y座標(左下原点)
+            final int verticalGravity = target.gravity & Gravity.VERTICAL_GRAVITY_MASK;
+            if (verticalGravity == Gravity.TOP) {
+                tops[i] = height - target.height - target.offsetY;
+            } else if (verticalGravity == Gravity.CENTER_VERTICAL) {
+                tops[i] = (height - target.height) / 2 + target.offsetY;
+            } else {
+                tops[i] = target.offsetY;
+            }
+            rights[i] = lefts[i] + target.width;
+            bottoms[i] = tops[i] + target.height;
+        }
+        mDropTargetIndex.rebuild(width, height, size, ids, lefts, tops, rights, bottoms);
     }
 
     /**
@@ -170,6 +311,9 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      */
     @Override
     public void onScreenChanged(boolean isFullscreen) {
+        // 画面サイズが変わった場合はドロップ先の位置を計算し直す
+        rebuildDropTargetIndex(false);
+
         // フルスクリーンでの非表示モードでない場合は何もしない
         if (mDisplayMode != DISPLAY_MODE_HIDE_FULLSCREEN) {
             return;
@@ -179,11 +323,7 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         final int state = mTargetFloatingView.getState();
         // 重なっていない場合は全て非表示処理
         if (state == FloatingView.STATE_NORMAL) {
-            final int size = mFloatingViewList.size();
-            for (int i = 0; i < size; i++) {
-                final FloatingView floatingView = mFloatingViewList.get(i);
-                floatingView.setVisibility(isFullscreen ? View.GONE : View.VISIBLE);
-            }
+            mFloatingViewRegistry.setVisibility(isFullscreen ? View.GONE : View.VISIBLE);
             mTrashView.dismiss();
         }
         // 重なっている場合は削除
@@ -200,11 +340,7 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
     public void onTrashAnimationStarted(int animationCode) {
         // クローズまたは強制クローズの場合はすべてのFloatingViewをタッチさせない
         if (animationCode == TrashView.ANIMATION_CLOSE || animationCode == TrashView.ANIMATION_FORCE_CLOSE) {
-            final int size = mFloatingViewList.size();
-            for (int i = 0; i < size; i++) {
-                final FloatingView floatingView = mFloatingViewList.get(i);
-                floatingView.setDraggable(false);
-            }
+            mFloatingViewRegistry.setDragLocked(true);
         }
     }
 
@@ -221,11 +357,7 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         }
 
         // すべてのFloatingViewのタッチ状態を戻す
-        final int size = mFloatingViewList.size();
-        for (int i = 0; i < size; i++) {
-            final FloatingView floatingView = mFloatingViewList.get(i);
-            floatingView.setDraggable(true);
-        }
+        mFloatingViewRegistry.setDragLocked(false);
 
     }
 
@@ -234,6 +366,15 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      */
     @Override
     public boolean onTouch(View v, MotionEvent event) {
+        PerfTrace.beginSection("FloatingViewManager.onTouch");
+        try {
+            return onTouchImpl(v, event);
+        } finally {
+            PerfTrace.endSection();
+        }
+    }
+
+    private boolean onTouchImpl(View v, MotionEvent event) {
         final int action = event.getAction();
 
         // 押下状態でないのに移動許可が出ていない場合はなにもしない(回転直後にACTION_MOVEが来て、FloatingViewが消えてしまう現象に対応)
@@ -253,6 +394,8 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         else if (action == MotionEvent.ACTION_MOVE) {
             // 检测是否发生碰撞
             final boolean isIntersecting = isIntersectWithTrash();
+            // ドロップ先の判定
+            updateDropTarget(isIntersecting);
             // 上一个状态
             final boolean isIntersect = state == FloatingView.STATE_INTERSECTING;
             // 重なっている場合は、FloatingViewをTrashViewに追従させる
@@ -279,6 +422,18 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
                 mTargetFloatingView.setFinishing();
                 mTrashView.setScaleTrashIcon(false);
             }
+            // ドロップ先の上で離された場合は通知
+            if (mCurrentDropTargetId != DropTargetIndex.NO_TARGET) {
+                final int targetId = mCurrentDropTargetId;
+                mCurrentDropTargetId = DropTargetIndex.NO_TARGET;
+                if (mDropTargetListener != null) {
+                    if (action == MotionEvent.ACTION_UP) {
+                        mDropTargetListener.onDroppedOnTarget(targetId);
+                    } else {
+                        mDropTargetListener.onDropTargetExited(targetId);
+                    }
+                }
+            }
             mIsMoveAccept = false;
         }
 
@@ -331,6 +486,196 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         mTrashView.setActionTrashIconImage(drawable);
     }
 
+    /**
+     * ドロップ先を追加します(隅へのピン留め、共有エリアなど)。
+     * 位置は画面サイズから解決されるため、画面回転後も同じ場所を指します。
+     *
+     * @param targetId ドロップ先のID(0以上)
+     * @param gravity  Gravity.LEFT/RIGHT/CENTER_HORIZONTALとGravity.TOP/BOTTOM/CENTER_VERTICALの組み合わせ
+     * @param width    幅(px)
+     * @param height   高さ(px)
+     * @param offsetX  Gravityの基準位置からのX方向のオフセット(px)
+     * @param offsetY  Gravityの基準位置からのY方向のオフセット(px)
+     */
+    public void addDropTarget(int targetId, int gravity, int width, int height, int offsetX, int offsetY) {
+        if (targetId < 0) {
+            throw new IllegalArgumentException("targetId must not be negative.");
+        }
+        removeDropTargetInternal(targetId);
+        mDropTargetList.add(new DropTarget(targetId, gravity, width, height, offsetX, offsetY));
+        rebuildDropTargetIndex(true);
+    }
+
+    /**
+     * ドロップ先を追加します。
+     *
+     * @param targetId ドロップ先のID(0以上)
+     * @param gravity  Gravity
+     * @param width    幅(px)
+     * @param height   高さ(px)
+     */
+    public void addDropTarget(int targetId, int gravity, int width, int height) {
+        addDropTarget(targetId, gravity, width, height, 0, 0);
+    }
+
+    /**
+     * ドロップ先を削除します。
+     *
+     * @param targetId ドロップ先のID
+     */
+    public void removeDropTarget(int targetId) {
+        if (removeDropTargetInternal(targetId)) {
+            rebuildDropTargetIndex(true);
+        }
+    }
+
+    private boolean removeDropTargetInternal(int targetId) {
+        final int size = mDropTargetList.size();
+        for (int i = 0; i < size; i++) {
+            if (mDropTargetList.get(i).id == targetId) {
+                mDropTargetList.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * DropTargetListenerを設定します。
+     *
+     * @param listener DropTargetListener
+     */
+    public void setDropTargetListener(DropTargetListener listener) {
+        mDropTargetListener = listener;
+    }
+
+    /**
+     * フリックで画面端に移動するかどうかを設定します。<br/>
+     * 有効にすると、離した時の速度から到達する画面端とY座標を求め、X・Y軸を同時にアニメーションさせます。
+     *
+     * @param isFlingEnabled フリックを有効にする場合はtrue
+     */
+    public void setFlingEnabled(boolean isFlingEnabled) {
+        mIsFlingEnabled = isFlingEnabled;
+        final int size = mFloatingViewRegistry.size();
+        for (int i = 0; i < size; i++) {
+            mFloatingViewRegistry.get(i).setFlingEnabled(isFlingEnabled);
+        }
+    }
+
+    /**
+     * ドラッグ中に指の位置を1フレーム先まで予測するかどうかを設定します。<br/>
+     * 予測位置は移動可能範囲内に制限されます。
+     *
+     * @param isEnabled 予測を有効にする場合はtrue
+     */
+    public void setTouchPredictionEnabled(boolean isEnabled) {
+        mIsTouchPredictionEnabled = isEnabled;
+        final int size = mFloatingViewRegistry.size();
+        for (int i = 0; i < size; i++) {
+            mFloatingViewRegistry.get(i).setTouchPredictionEnabled(isEnabled);
+        }
+    }
+
+    /**
+     * ドラッグ操作ごとの計測結果を受け取るリスナを設定します。<br/>
+     * 押下から画面端への移動が終わるまでを1回の操作とし、最初のフレームまでの時間、フレーム時間、
+     * コマ落ちの数、WindowManagerの呼び出し回数を通知します。
+     * 以降に作成されるオプションメニューの開閉も同じリスナに通知されます。
+     *
+     * @param listener MenuMetricsListener(計測を止める場合はnull)
+     */
+    public void setMetricsListener(MenuMetricsListener listener) {
+        mMetricsTracker.setListener(listener);
+    }
+
+    /**
+     * FloatingViewに届くタッチイベントの記録を開始します。<br/>
+     * 時間、スクリーン座標、アクションをバイナリ形式で書き込みます。記録中の場合は前の記録を終了します。
+     *
+     * @param output 出力先({@link #stopTouchTrace()}で閉じられます)
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void startTouchTrace(OutputStream output) throws IOException {
+        stopTouchTrace();
+        mTouchTraceRecorder = new TouchTraceRecorder(output);
+        mFloatingViewRegistry.setTouchTraceRecorder(mTouchTraceRecorder);
+    }
+
+    /**
+     * タッチイベントの記録を終了し、出力先を閉じます。
+     *
+     * @return 記録したイベントの数(記録していない場合は0)
+     * @throws IOException 記録中または終了時に書き込みに失敗した場合
+     */
+    public int stopTouchTrace() throws IOException {
+        final TouchTraceRecorder recorder = mTouchTraceRecorder;
+        if (recorder == null) {
+            return 0;
+        }
+        mTouchTraceRecorder = null;
+        mFloatingViewRegistry.setTouchTraceRecorder(null);
+        recorder.close();
+        return recorder.getEventCount();
+    }
+
+    /**
+     * {@link #startTouchTrace(OutputStream)}で記録したタッチイベントを待ち時間なしで再生します。<br/>
+     * イベントは記録時と同じ順番で貼り付けたFloatingViewに送られます。
+     * {@link com.oguzdev.circularfloatingactionmenu.core.ManualAnimationClock}を設定しておくと、
+     * 各イベントの時間まで時計を進めながら再生します。
+     *
+     * @param input 入力元(読み込み後に閉じられます)
+     * @return 送信したイベントの数
+     * @throws IOException 読み込みに失敗した場合、または形式が正しくない場合
+     */
+    public int replayTouchTrace(InputStream input) throws IOException {
+        return new TouchTraceReplayer(input).replay(mFloatingViewRegistry);
+    }
+
+    /**
+     * {@link #startTouchTrace(OutputStream)}で記録したタッチイベントを、記録時と同じ間隔でメインスレッドに再生します。<br/>
+     * 再生中の場合は前の再生を中止します。
+     *
+     * @param input 入力元(読み込み後に閉じられます)
+     * @throws IOException 読み込みに失敗した場合、または形式が正しくない場合
+     */
+    public void playTouchTrace(InputStream input) throws IOException {
+        stopTouchTracePlayback();
+        mTouchTraceReplayer = new TouchTraceReplayer(input);
+        mTouchTraceReplayer.start(mFloatingViewRegistry);
+    }
+
+    /**
+     * 実時間でのタッチトレースの再生を中止します。
+     */
+    public void stopTouchTracePlayback() {
+        if (mTouchTraceReplayer != null) {
+            mTouchTraceReplayer.stop();
+            mTouchTraceReplayer = null;
+        }
+    }
+
+    /**
+     * 最後にタッチされたFloatingViewの予測誤差の平均を取得します。
+     *
+     * @return 予測誤差の平均(px)。予測が無効の場合は0
+     */
+    public float getTouchPredictionMeanError() {
+        final TouchPredictor predictor = mTargetFloatingView != null ? mTargetFloatingView.getTouchPredictor() : null;
+        return predictor != null ? predictor.getMeanError() : 0;
+    }
+
+    /**
+     * 最後にタッチされたFloatingViewの予測誤差の最大値を取得します。
+     *
+     * @return 予測誤差の最大値(px)。予測が無効の場合は0
+     */
+    public float getTouchPredictionMaxError() {
+        final TouchPredictor predictor = mTargetFloatingView != null ? mTargetFloatingView.getTouchPredictor() : null;
+        return predictor != null ? predictor.getMaxError() : 0;
+    }
+
     /**
      * 表示モードを変更します。
      *
@@ -340,15 +685,11 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
         mDisplayMode = displayMode;
         // 常に表示/フルスクリーン時に非表示にするモードの場合
         if (mDisplayMode == DISPLAY_MODE_SHOW_ALWAYS || mDisplayMode == DISPLAY_MODE_HIDE_FULLSCREEN) {
-            for (FloatingView floatingView : mFloatingViewList) {
-                floatingView.setVisibility(View.VISIBLE);
-            }
+            mFloatingViewRegistry.setVisibility(View.VISIBLE);
         }
         // 常に非表示にするモードの場合
         else if (mDisplayMode == DISPLAY_MODE_HIDE_ALWAYS) {
-            for (FloatingView floatingView : mFloatingViewList) {
-                floatingView.setVisibility(View.GONE);
-            }
+            mFloatingViewRegistry.setVisibility(View.GONE);
             mTrashView.dismiss();
         }
     }
@@ -361,14 +702,16 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      * @param overMargin 相对于屏幕边界影藏多少像素
      */
     public void addViewToWindow(View view, float shape, int overMargin) {
-        final boolean isFirstAttach = mFloatingViewList.isEmpty();
+        final boolean isFirstAttach = mFloatingViewRegistry.isEmpty();
         // FloatingView
-        final FloatingView floatingView = new FloatingView(mContext);
+        final FloatingView floatingView = new FloatingView(mContext, mMetricsTracker);
         floatingView.addView(view);
         view.setClickable(false);
         floatingView.setOnTouchListener(this);
         floatingView.setShape(shape);
         floatingView.setOverMargin(overMargin);
+        floatingView.setFlingEnabled(mIsFlingEnabled);
+        floatingView.setTouchPredictionEnabled(mIsTouchPredictionEnabled);
         floatingView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
             @Override
             public boolean onPreDraw() {
@@ -381,8 +724,7 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
             @Override
             public void onMoveToEdge(boolean isToRight, int y) {
                 DisplayMetrics metrics = new DisplayMetrics();
-                WindowManager windowManager = (WindowManager) mContext.getSystemService(Context.WINDOW_SERVICE);
-                windowManager.getDefaultDisplay().getMetrics(metrics);
+                mWindowManager.getDefaultDisplay().getMetrics(metrics);
                 final int screenHeight = metrics.heightPixels;
                 int screenHeight2_3 = (screenHeight*2)/3;
                 if (isToRight){
@@ -398,25 +740,26 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
                 }
             }
         });
-        // DISPLAY_MODE_HIDE_ALWAYS模式时
-        if (mDisplayMode == DISPLAY_MODE_HIDE_ALWAYS) {
-            floatingView.setVisibility(View.GONE);
-        }
-        mFloatingViewList.add(floatingView);
+        // 現在の表示状態(DISPLAY_MODE_HIDE_ALWAYS模式时は非表示)で登録
+        mFloatingViewRegistry.add(floatingView);
         // TrashView
         mTrashView.setTrashViewListener(this);
 
         // 把floatview添加到Window
         mWindowManager.addView(floatingView, floatingView.getWindowLayoutParams());
+        mMetricsTracker.countAddView();
         // 最初の貼り付け時の場合のみ、フルスクリーン監視Viewと削除Viewを貼り付け
         if (isFirstAttach) {
             mWindowManager.addView(mFullscreenObserverView, mFullscreenObserverView.getWindowLayoutParams());
+            mMetricsTracker.countAddView();
             mTargetFloatingView = floatingView;
         } else {
             mWindowManager.removeViewImmediate(mTrashView);
+            mMetricsTracker.countRemoveView();
         }
         // 把删除图片添加到Window
         mWindowManager.addView(mTrashView, mTrashView.getWindowLayoutParams());
+        mMetricsTracker.countAddView();
 //        initOptionsMenu(floatingView, 0, 90);
     }
 
@@ -441,19 +784,16 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
     private void initOptionsMenu(View view, int startAngle, int endAngle) {
         View mainActionView = view;
 
+        // アイコンはバックグラウンドで一度だけデコードされ、以降のメニューではキャッシュを使う
         SubActionButton.Builder rLSubBuilder = new SubActionButton.Builder(mContext);
-        ImageView rlIcon1 = new ImageView(mContext);
-        ImageView rlIcon2 = new ImageView(mContext);
-
-        rlIcon1.setImageDrawable(mContext.getResources().getDrawable(R.drawable.ic_action_video_watch));
-        rlIcon2.setImageDrawable(mContext.getResources().getDrawable(R.drawable.ic_action_video_record));
 
         FloatingActionMenu itemMenu = new FloatingActionMenu.Builder(mContext)
                 .setStartAngle(startAngle)
                 .setEndAngle(endAngle)
                 .setRadius(mContext.getResources().getDimensionPixelSize(R.dimen.radius_small))
-                .addSubActionView(rLSubBuilder.setContentView(rlIcon1).build())
-                .addSubActionView(rLSubBuilder.setContentView(rlIcon2).build())
+                .setMetricsListener(mMetricsTracker.getListener())
+                .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_video_watch).build())
+                .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_video_record).build())
                         // listen state changes of each menu
                 .setStateChangeListener(new FloatingActionMenu.MenuStateChangeListener() {
                     @Override
@@ -478,15 +818,14 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      * @param floatingView FloatingView
      */
     private void removeViewToWindow(FloatingView floatingView) {
-        final int matchIndex = mFloatingViewList.indexOf(floatingView);
         // 見つかった場合は表示とリストから削除
-        if (matchIndex != -1) {
+        if (mFloatingViewRegistry.remove(floatingView)) {
             mWindowManager.removeViewImmediate(floatingView);
-            mFloatingViewList.remove(matchIndex);
+            mMetricsTracker.countRemoveView();
         }
 
         // 残りのViewをチェック
-        if (mFloatingViewList.isEmpty()) {
+        if (mFloatingViewRegistry.isEmpty()) {
             // 終了を通知
             if (mFloatingViewListener != null) {
                 mFloatingViewListener.onFinishFloatingView();
@@ -498,15 +837,41 @@ public class FloatingViewManager implements ScreenChangedListener, View.OnTouchL
      * ViewをWindowから全て取り外します。
      */
     public void removeAllViewToWindow() {
+        stopTouchTracePlayback();
         mWindowManager.removeViewImmediate(mFullscreenObserverView);
+        mMetricsTracker.countRemoveView();
         mWindowManager.removeViewImmediate(mTrashView);
+        mMetricsTracker.countRemoveView();
         // FloatingViewの削除
-        final int size = mFloatingViewList.size();
+        final int size = mFloatingViewRegistry.size();
         for (int i = 0; i < size; i++) {
-            final FloatingView floatingView = mFloatingViewList.get(i);
+            final FloatingView floatingView = mFloatingViewRegistry.get(i);
             mWindowManager.removeViewImmediate(floatingView);
+            mMetricsTracker.countRemoveView();
+        }
+        mFloatingViewRegistry.clear();
+    }
+
+    /**
+     * 登録されたドロップ先を表します。
+     */
+    private static class DropTarget {
+
+        final int id;
+        final int gravity;
+        final int width;
+        final int height;
+        final int offsetX;
+        final int offsetY;
+
+        DropTarget(int id, int gravity, int width, int height, int offsetX, int offsetY) {
+            this.id = id;
+            this.gravity = gravity;
+            this.width = width;
+            this.height = height;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
         }
-        mFloatingViewList.clear();
     }
 
 }
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2015 RECRUIT LIFESTYLE CO., LTD.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.jalen_pc.moveviewlibrary;
+
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Windowに貼り付けられたFloatingViewを管理するクラスです。
+ * 各FloatingViewが自身の位置を保持するため、削除はO(1)で行えます(順序は保持しません)。
+ * ドラッグのロックと表示状態はまとめて管理し、FloatingViewごとのフラグを書き換えません。
+ * インデックスとは別に、登録順に変わらないIDを割り当てます(タッチトレースの送信先に使います)。
+ */
+class FloatingViewRegistry {
+
+    /**
+     * 登録されていないことを表すインデックス
+     */
+    static final int NO_INDEX = -1;
+
+    /**
+     * FloatingViewのリスト
+     */
+    private final ArrayList<FloatingView> mFloatingViewList;
+
+    /**
+     * 次に登録するFloatingViewのID
+     */
+    private int mNextId;
+
+    /**
+     * 全てのFloatingViewのドラッグをロックするフラグ
+     */
+    private boolean mIsDragLocked;
+
+    /**
+     * 全てのFloatingViewの表示状態
+     */
+    private int mVisibility;
+
+    /**
+     * タッチイベントの記録先(記録していない場合はnull)
+     */
+    private TouchTraceRecorder mTouchTraceRecorder;
+
+    /**
+     * コンストラクタ
+     */
+    FloatingViewRegistry() {
+        mFloatingViewList = new ArrayList<>();
+        mIsDragLocked = false;
+        mVisibility = View.VISIBLE;
+    }
+
+    /**
+     * FloatingViewを登録します。現在の表示状態が反映されます。
+     *
+     * @param floatingView FloatingView
+     */
+    void add(FloatingView floatingView) {
+        floatingView.setRegistry(this, mFloatingViewList.size());
+        floatingView.setRegistryId(mNextId++);
+        mFloatingViewList.add(floatingView);
+        if (floatingView.getVisibility() != mVisibility) {
+            floatingView.setVisibility(mVisibility);
+        }
+    }
+
+    /**
+     * FloatingViewの登録を解除します。
+     * 末尾の要素を削除位置に移動するため、O(1)で処理できます。
+     *
+     * @param floatingView FloatingView
+     * @return 登録されていた場合はtrue
+     */
+    boolean remove(FloatingView floatingView) {
+        final int index = floatingView.getRegistryIndex();
+        if (index == NO_INDEX || index >= mFloatingViewList.size() || mFloatingViewList.get(index) != floatingView) {
+            return false;
+        }
+        final FloatingView last = mFloatingViewList.remove(mFloatingViewList.size() - 1);
+        if (last != floatingView) {
+            mFloatingViewList.set(index, last);
+            last.setRegistry(this, index);
+        }
+        floatingView.setRegistry(null, NO_INDEX);
+        return true;
+    }
+
+    /**
+     * 全ての登録を解除します。IDは0から割り当て直します。
+     */
+    void clear() {
+        final int size = mFloatingViewList.size();
+        for (int i = 0; i < size; i++) {
+            mFloatingViewList.get(i).setRegistry(null, NO_INDEX);
+        }
+        mFloatingViewList.clear();
+        mNextId = 0;
+    }
+
+    /**
+     * @return 登録されているFloatingViewの数
+     */
+    int size() {
+        return mFloatingViewList.size();
+    }
+
+    /**
+     * @return 登録されているFloatingViewがない場合はtrue
+     */
+    boolean isEmpty() {
+        return mFloatingViewList.isEmpty();
+    }
+
+    /**
+     * @param index インデックス
+     * @return FloatingView
+     */
+    FloatingView get(int index) {
+        return mFloatingViewList.get(index);
+    }
+
+    /**
+     * @param id 登録時に割り当てたID
+     * @return FloatingView(登録されていない場合はnull)
+     */
+    FloatingView findById(int id) {
+        final int size = mFloatingViewList.size();
+        for (int i = 0; i < size; i++) {
+            final FloatingView floatingView = mFloatingViewList.get(i);
+            if (floatingView.getRegistryId() == id) {
+                return floatingView;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 全てのFloatingViewのドラッグをロックします。
+     *
+     * @param isDragLocked ロックする場合はtrue
+     */
+    void setDragLocked(boolean isDragLocked) {
+        mIsDragLocked = isDragLocked;
+    }
+
+    /**
+     * @return ドラッグがロックされている場合はtrue
+     */
+    boolean isDragLocked() {
+        return mIsDragLocked;
+    }
+
+    /**
+     * 全てのFloatingViewに届いたタッチイベントの記録先を設定します。
+     *
+     * @param recorder TouchTraceRecorder(記録を止める場合はnull)
+     */
+    void setTouchTraceRecorder(TouchTraceRecorder recorder) {
+        mTouchTraceRecorder = recorder;
+    }
+
+    /**
+     * @return タッチイベントの記録先(記録していない場合はnull)
+     */
+    TouchTraceRecorder getTouchTraceRecorder() {
+        return mTouchTraceRecorder;
+    }
+
+    /**
+     * 全てのFloatingViewの表示状態を変更します。
+     * 状態が変わらない場合は何もしないため、画面の変化のたびに呼び出しても走査は発生しません。
+     *
+     * @param visibility View.VISIBLE or View.GONE
+     */
+    void setVisibility(int visibility) {
+        if (mVisibility == visibility) {
+            return;
+        }
+        mVisibility = visibility;
+        final int size = mFloatingViewList.size();
+        for (int i = 0; i < size; i++) {
+            mFloatingViewList.get(i).setVisibility(visibility);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2015 RECRUIT LIFESTYLE CO., LTD.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.jalen_pc.moveviewlibrary;
+
+import android.view.MotionEvent;
+
+import com.oguzdev.circularfloatingactionmenu.core.TouchTraceWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * FloatingViewに届いたMotionEventをバイナリ形式で記録するクラスです。<br/>
+ * ファイルの形式は{@link TouchTraceWriter}を参照してください。
+ * 送信先はFloatingViewRegistryのIDで記録するため、他のFloatingViewを削除しても送信先は変わりません。
+ */
+class TouchTraceRecorder {
+
+    /**
+     * 出力先
+     */
+    private final TouchTraceWriter mWriter;
+
+    /**
+     * 書き込み時に発生したエラー(発生後は記録しない)
+     */
+    private IOException mError;
+
+    /**
+     * コンストラクタ
+     *
+     * @param output 出力先
+     * @throws IOException ヘッダの書き込みに失敗した場合
+     */
+    TouchTraceRecorder(OutputStream output) throws IOException {
+        mWriter = new TouchTraceWriter(output);
+    }
+
+    /**
+     * イベントを記録します。タッチ処理を止めないため、書き込みのエラーは{@link #close()}で通知します。
+     *
+     * @param source 送信先のFloatingViewのID
+     * @param event  MotionEvent
+     */
+    void record(int source, MotionEvent event) {
+        if (mError != null) {
+            return;
+        }
+        final float offsetX = event.getRawX() - event.getX();
+        final float offsetY = event.getRawY() - event.getY();
+        final int historySize = event.getHistorySize();
+        try {
+            mWriter.beginEvent(source, event.getActionMasked(), event.getEventTime(), event.getDownTime(),
+                    -offsetX, -offsetY, historySize + 1);
+            for (int i = 0; i < historySize; i++) {
+                mWriter.writeSample(event.getHistoricalEventTime(i), event.getHistoricalX(i) + offsetX, event.getHistoricalY(i) + offsetY);
+            }
+            mWriter.writeSample(event.getEventTime(), event.getRawX(), event.getRawY());
+        } catch (IOException e) {
+            mError = e;
+        }
+    }
+
+    /**
+     * @return 記録したイベントの数
+     */
+    int getEventCount() {
+        return mWriter.getEventCount();
+    }
+
+    /**
+     * 記録を終了し、出力先を閉じます。
+     *
+     * @throws IOException 記録中または終了時に書き込みに失敗した場合
+     */
+    void close() throws IOException {
+        try {
+            mWriter.close();
+        } catch (IOException e) {
+            if (mError == null) {
+                mError = e;
+            }
+        }
+        if (mError != null) {
+            throw mError;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2015 RECRUIT LIFESTYLE CO., LTD.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.jalen_pc.moveviewlibrary;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import com.oguzdev.circularfloatingactionmenu.core.AnimationClock;
+import com.oguzdev.circularfloatingactionmenu.core.ManualAnimationClock;
+import com.oguzdev.circularfloatingactionmenu.core.TouchTraceReader;
+import com.oguzdev.circularfloatingactionmenu.library.AnimationClocks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+/**
+ * {@link TouchTraceRecorder}で記録したイベントをFloatingViewに再生するクラスです。<br/>
+ * イベントは記録時と同じIDのFloatingViewのdispatchTouchEventに送られるため、
+ * FloatingViewManager.onTouchとTrashViewにも記録時と同じ経路で届きます。
+ * 再生はメインスレッドで行う必要があります。
+ */
+class TouchTraceReplayer {
+
+    /**
+     * 記録されたイベント
+     */
+    private final ArrayList<Event> mEvents;
+
+    /**
+     * 実時間で再生する場合のHandler
+     */
+    private final Handler mHandler;
+
+    /**
+     * 実時間で再生中のタスク(再生していない場合はnull)
+     */
+    private Playback mPlayback;
+
+    /**
+     * コンストラクタ。トレースをすべて読み込み、入力元を閉じます。
+     *
+     * @param input 入力元
+     * @throws IOException 読み込みに失敗した場合、または形式が正しくない場合
+     */
+    TouchTraceReplayer(InputStream input) throws IOException {
+        mEvents = new ArrayList<>();
+        mHandler = new Handler(Looper.getMainLooper());
+        final TouchTraceReader reader;
+        try {
+            reader = new TouchTraceReader(input);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+        try {
+            while (reader.next()) {
+                final Event event = new Event();
+                event.source = reader.getSource();
+                event.action = reader.getAction();
+                event.eventTime = reader.getEventTime();
+                event.downTime = reader.getDownTime();
+                event.localOffsetX = reader.getLocalOffsetX();
+                event.localOffsetY = reader.getLocalOffsetY();
+                final int sampleCount = reader.getSampleCount();
+                event.sampleTimes = new long[sampleCount];
+                event.sampleX = new float[sampleCount];
+                event.sampleY = new float[sampleCount];
+                for (int i = 0; i < sampleCount; i++) {
+                    event.sampleTimes[i] = reader.getSampleTime(i);
+                    event.sampleX[i] = reader.getSampleX(i);
+                    event.sampleY[i] = reader.getSampleY(i);
+                }
+                mEvents.add(event);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return 記録されたイベントの数
+     */
+    int size() {
+        return mEvents.size();
+    }
+
+    /**
+     * 全てのイベントを待ち時間なしで再生します。<br/>
+     * イベント時間は現在の{@link AnimationClocks}の時間を起点とし、
+     * {@link ManualAnimationClock}が設定されている場合は各イベントの時間まで進めてから送ります。
+     * これにより、アニメーションの各フレームを決定的に再現できます。
+     *
+     * @param registry 送信先のFloatingViewRegistry
+     * @return 送信したイベントの数(送信先が見つからないイベントは除く)
+     */
+    int replay(FloatingViewRegistry registry) {
+        final AnimationClock clock = AnimationClocks.getClock();
+        final long baseTime = clock.uptimeMillis();
+        int count = 0;
+        final int size = mEvents.size();
+        for (int i = 0; i < size; i++) {
+            final Event event = mEvents.get(i);
+            if (clock instanceof ManualAnimationClock) {
+                ((ManualAnimationClock) clock).setUptimeMillis(baseTime + event.eventTime);
+            }
+            if (dispatch(registry, event, baseTime)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 記録時と同じ間隔でイベントを再生します。再生中の場合は最初からやり直します。
+     *
+     * @param registry 送信先のFloatingViewRegistry
+     */
+    void start(FloatingViewRegistry registry) {
+        stop();
+        if (mEvents.isEmpty()) {
+            return;
+        }
+        mPlayback = new Playback(registry, SystemClock.uptimeMillis());
+        mHandler.post(mPlayback);
+    }
+
+    /**
+     * 実時間での再生を中止します。
+     */
+    void stop() {
+        if (mPlayback != null) {
+            mHandler.removeCallbacks(mPlayback);
+            mPlayback = null;
+        }
+    }
+
+    /**
+     * イベントを復元し、FloatingViewに送信します。
+     *
+     * @param registry 送信先のFloatingViewRegistry
+     * @param event    記録されたイベント
+     * @param baseTime 再生を開始した時間
+     * @return 送信先が見つかった場合はtrue
+     */
+    private static boolean dispatch(FloatingViewRegistry registry, Event event, long baseTime) {
+        final FloatingView floatingView = registry.findById(event.source);
+        if (floatingView == null) {
+            return false;
+        }
+        final MotionEvent motionEvent = MotionEvent.obtain(baseTime + event.downTime, baseTime + event.sampleTimes[0],
+                event.action, event.sampleX[0], event.sampleY[0], 0);
+        // 2つ目以降のサンプルを追加すると、それまでのサンプルは過去のサンプルになる
+        final int sampleCount = event.sampleTimes.length;
+        for (int i = 1; i < sampleCount; i++) {
+            motionEvent.addBatch(baseTime + event.sampleTimes[i], event.sampleX[i], event.sampleY[i], 1.0f, 1.0f, 0);
+        }
+        // スクリーン座標はそのままに、ローカル座標だけをずらす
+        motionEvent.offsetLocation(event.localOffsetX, event.localOffsetY);
+        floatingView.dispatchTouchEvent(motionEvent);
+        motionEvent.recycle();
+        return true;
+    }
+
+    /**
+     * 記録されたイベントを表します。時間はトレースの最初のイベントを0とします。
+     */
+    private static class Event {
+        int source;
+        int action;
+        long eventTime;
+        long downTime;
+        float localOffsetX;
+        float localOffsetY;
+        long[] sampleTimes;
+        float[] sampleX;
+        float[] sampleY;
+    }
+
+    /**
+     * 実時間で1イベントずつ送信するタスクです。
+     */
+    private class Playback implements Runnable {
+
+        private final FloatingViewRegistry mRegistry;
+        private final long mBaseTime;
+        private int mIndex;
+
+        Playback(FloatingViewRegistry registry, long baseTime) {
+            mRegistry = registry;
+            mBaseTime = baseTime;
+        }
+
+        @Override
+        public void run() {
+            dispatch(mRegistry, mEvents.get(mIndex), mBaseTime);
+            mIndex++;
+            if (mIndex < mEvents.size()) {
+                mHandler.postAtTime(this, mBaseTime + mEvents.get(mIndex).eventTime);
+            } else {
+                mPlayback = null;
+            }
+        }
+    }
+}
@@ -27,7 +27,6 @@ import android.graphics.drawable.GradientDrawable;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Message;
-import android.os.SystemClock;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.MotionEvent;
@@ -39,6 +38,12 @@ import android.view.animation.OvershootInterpolator;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 
+import com.oguzdev.circularfloatingactionmenu.core.TrashGeometry;
+import com.oguzdev.circularfloatingactionmenu.library.AnimationClocks;
+import com.oguzdev.circularfloatingactionmenu.library.MenuMetricsTracker;
+import com.oguzdev.circularfloatingactionmenu.library.PerfTrace;
+import com.oguzdev.circularfloatingactionmenu.library.WindowManagers;
+
 import java.lang.ref.WeakReference;
 
 /**
@@ -164,14 +169,26 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
      */
     private TrashViewListener mTrashViewListener;
 
+    /**
+     * WindowManagerの呼び出し回数を記録する計測
+     */
+    private final MenuMetricsTracker mMetricsTracker;
+
+    /**
+     * 当たり判定用矩形の計算結果(left, top, right, bottom)
+     */
+    private final int[] mCaptureRect = new int[4];
+
     /**
      * コンストラクタ
      *
-     * @param context Context
+     * @param context        Context
+     * @param metricsTracker WindowManagerの呼び出し回数を記録する計測
      */
-    TrashView(Context context) {
+    TrashView(Context context, MenuMetricsTracker metricsTracker) {
         super(context);
-        mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        mMetricsTracker = metricsTracker;
+        mWindowManager = WindowManagers.get(context);
         mMetrics = new DisplayMetrics();
         mWindowManager.getDefaultDisplay().getMetrics(mMetrics);
         mAnimationHandler = new AnimationHandler(this);
@@ -269,6 +286,7 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
         mAnimationHandler.onUpdateViewLayout();
 
         mWindowManager.updateViewLayout(this, mParams);
+        mMetricsTracker.countUpdateViewLayout();
     }
 
     /**
@@ -299,11 +317,9 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
         final float iconHeight = iconView.getHeight() - iconPaddingTop - iconView.getPaddingBottom();
         final float x = mTrashIconRootView.getX() + iconPaddingLeft;
         final float y = mRootView.getHeight() - mTrashIconRootView.getY() - iconPaddingTop - iconHeight;
-        final int left = (int) (x - TARGET_CAPTURE_HORIZONTAL_REGION * mMetrics.density);
-        final int top = -mRootView.getHeight();
-        final int right = (int) (x + iconWidth + TARGET_CAPTURE_HORIZONTAL_REGION * mMetrics.density);
-        final int bottom = (int) (y + iconHeight + TARGET_CAPTURE_VERTICAL_REGION * mMetrics.density);
-        outRect.set(left, top, right, bottom);
+        TrashGeometry.getCaptureRect(x, y, iconWidth, iconHeight, mRootView.getHeight(),
+                TARGET_CAPTURE_HORIZONTAL_REGION * mMetrics.density, TARGET_CAPTURE_VERTICAL_REGION * mMetrics.density, mCaptureRect);
+        outRect.set(mCaptureRect[TrashGeometry.LEFT], mCaptureRect[TrashGeometry.TOP], mCaptureRect[TrashGeometry.RIGHT], mCaptureRect[TrashGeometry.BOTTOM]);
     }
 
     /**
@@ -667,6 +683,15 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
          */
         @Override
         public void handleMessage(Message msg) {
+            PerfTrace.beginSection("TrashView.AnimationHandler.handleMessage");
+            try {
+                handleMessageImpl(msg);
+            } finally {
+                PerfTrace.endSection();
+            }
+        }
+
+        private void handleMessageImpl(Message msg) {
             final TrashView trashView = mTrashView.get();
             if (trashView == null) {
                 removeMessages(ANIMATION_OPEN);
@@ -685,7 +710,7 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
 
             // アニメーションを開始した場合の初期化
             if (animationType == TYPE_FIRST) {
-                mStartTime = SystemClock.uptimeMillis();
+                mStartTime = AnimationClocks.uptimeMillis();
                 mStartAlpha = backgroundView.getAlpha();
                 mStartTransitionY = trashIconRootView.getTranslationY();
                 mStartedCode = animationCode;
@@ -694,7 +719,7 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
                 }
             }
             // 経過時間
-            final float elapsedTime = SystemClock.uptimeMillis() - mStartTime;
+            final float elapsedTime = AnimationClocks.uptimeMillis() - mStartTime;
 
             // 表示アニメーション
             if (animationCode == ANIMATION_OPEN) {
@@ -723,7 +748,7 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
                     trashIconRootView.setTranslationY(positionY);
                 }
 
-                sendMessageAtTime(newMessage(animationCode, TYPE_UPDATE), SystemClock.uptimeMillis() + ANIMATION_REFRESH_TIME_MILLIS);
+                sendMessageDelayed(newMessage(animationCode, TYPE_UPDATE), ANIMATION_REFRESH_TIME_MILLIS);
             }
             // 非表示アニメーション
             else if (animationCode == ANIMATION_CLOSE) {
@@ -738,7 +763,7 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
                 if (alphaElapseTimeRate < 1.0f || translationYTimeRate < 1.0f) {
                     final float position = mStartTransitionY + mTrashIconLimitPosition.height() * translationYTimeRate;
                     trashIconRootView.setTranslationY(position);
-                    sendMessageAtTime(newMessage(animationCode, TYPE_UPDATE), SystemClock.uptimeMillis() + ANIMATION_REFRESH_TIME_MILLIS);
+                    sendMessageDelayed(newMessage(animationCode, TYPE_UPDATE), ANIMATION_REFRESH_TIME_MILLIS);
                 } else {
                     // 位置を強制的に調整
                     trashIconRootView.setTranslationY(mTrashIconLimitPosition.bottom);
@@ -766,7 +791,7 @@ class TrashView extends FrameLayout implements ViewTreeObserver.OnPreDrawListene
          * @param delayMillis メッセージの送信時間
          */
         void sendAnimationMessageDelayed(int animation, long delayMillis) {
-            sendMessageAtTime(newMessage(animation, TYPE_FIRST), SystemClock.uptimeMillis() + delayMillis);
+            sendMessageDelayed(newMessage(animation, TYPE_FIRST), delayMillis);
         }
 
         /**
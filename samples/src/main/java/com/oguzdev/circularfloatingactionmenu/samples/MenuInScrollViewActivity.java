@@ -8,20 +8,16 @@ import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.view.ViewTreeObserver;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.ScrollView;
 
 import com.oguzdev.circularfloatingactionmenu.library.FloatingActionMenu;
+import com.oguzdev.circularfloatingactionmenu.library.MenuGroup;
 import com.oguzdev.circularfloatingactionmenu.library.SubActionButton;
 
-import java.util.ArrayList;
+public class MenuInScrollViewActivity extends ActionBarActivity {
 
-public class MenuInScrollViewActivity extends ActionBarActivity implements FloatingActionMenu.MenuStateChangeListener, ViewTreeObserver.OnScrollChangedListener, View.OnLayoutChangeListener {
-
-    private ArrayList<FloatingActionMenu> menus;
-    private FloatingActionMenu currentMenu;
+    private MenuGroup menuGroup;
     private FloatingActionMenu bottomMenu;
 
     @Override
@@ -34,7 +30,8 @@ public class MenuInScrollViewActivity extends ActionBarActivity implements Float
         final ScrollView scrollView = (ScrollView) findViewById(R.id.scrollView);
         LinearLayout scrollViewBody = (LinearLayout) findViewById(R.id.scrollViewBody);
 
-        menus = new ArrayList<FloatingActionMenu>();
+        // The group makes sure that only one of the item menus stays open
+        menuGroup = new MenuGroup();
 
         // add 20 views into body, each with a menu attached
         for(int i=0; i<20; i++) {
@@ -44,33 +41,24 @@ public class MenuInScrollViewActivity extends ActionBarActivity implements Float
 
             View mainActionView = item.findViewById(R.id.itemActionView);
 
+            // The icons are decoded once in the background and shared by all 20 menus
             SubActionButton.Builder rLSubBuilder = new SubActionButton.Builder(this);
-            ImageView rlIcon1 = new ImageView(this);
-            ImageView rlIcon2 = new ImageView(this);
-            ImageView rlIcon3 = new ImageView(this);
-
-            rlIcon1.setImageDrawable(getResources().getDrawable(R.drawable.ic_action_chat_light));
-            rlIcon2.setImageDrawable(getResources().getDrawable(R.drawable.ic_action_camera_light));
-            rlIcon3.setImageDrawable(getResources().getDrawable(R.drawable.ic_action_video_light));
 
-            FloatingActionMenu itemMenu = new FloatingActionMenu.Builder(this)
+            new FloatingActionMenu.Builder(this)
                     .setStartAngle(-45)
                     .setEndAngle(-135)
                     .setRadius(getResources().getDimensionPixelSize(R.dimen.radius_large))
-                    .addSubActionView(rLSubBuilder.setContentView(rlIcon1).build())
-                    .addSubActionView(rLSubBuilder.setContentView(rlIcon2).build())
-                    .addSubActionView(rLSubBuilder.setContentView(rlIcon3).build())
-                    // listen state changes of each menu
-                    .setStateChangeListener(this)
+                    .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_chat_light).build())
+                    .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_camera_light).build())
+                    .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_video_light).build())
+                    .setMenuGroup(menuGroup)
                     .attachTo(mainActionView)
                     .build();
-
-            //
-            menus.add(itemMenu);
         }
 
-        // listen scroll events on root ScrollView
-        scrollView.getViewTreeObserver().addOnScrollChangedListener(this);
+        // listen scroll events on root ScrollView,
+        // the group only updates item coordinates of the currently open menu.
+        scrollView.getViewTreeObserver().addOnScrollChangedListener(menuGroup);
 
 
         findViewById(R.id.buttom_bar_edit_text).clearFocus();
@@ -78,26 +66,19 @@ public class MenuInScrollViewActivity extends ActionBarActivity implements Float
         // Attach a menu to the button in the bottom bar, just to prove that it works.
         View bottomActionButton = findViewById(R.id.bottom_bar_action_button);
         SubActionButton.Builder rLSubBuilder = new SubActionButton.Builder(this);
-        ImageView rlIcon1 = new ImageView(this);
-        ImageView rlIcon2 = new ImageView(this);
-        ImageView rlIcon3 = new ImageView(this);
-
-        rlIcon1.setImageDrawable(getResources().getDrawable(R.drawable.ic_action_place_light));
-        rlIcon2.setImageDrawable(getResources().getDrawable(R.drawable.ic_action_picture_light));
-        rlIcon3.setImageDrawable(getResources().getDrawable(R.drawable.ic_action_camera_light));
 
         bottomMenu = new FloatingActionMenu.Builder(this)
-                .addSubActionView(rLSubBuilder.setContentView(rlIcon1).build())
-                .addSubActionView(rLSubBuilder.setContentView(rlIcon2).build())
-                .addSubActionView(rLSubBuilder.setContentView(rlIcon3).build())
+                .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_place_light).build())
+                .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_picture_light).build())
+                .addSubActionView(rLSubBuilder.setContentIcon(R.drawable.ic_action_camera_light).build())
                 .setStartAngle(-40)
                 .setEndAngle(-90)
                 .setRadius(getResources().getDimensionPixelSize(R.dimen.radius_medium))
+                // Reposition the bottom menu when the main layout changes size on events
+                // like soft keyboard open/close, without listening to layout changes ourselves
+                .enableAnchorTracking()
                 .attachTo(bottomActionButton)
                 .build();
-
-        // Listen layout (size) changes on a main layout so that we could reposition the bottom menu
-        scrollView.addOnLayoutChangeListener(this);
     }
 
 
@@ -119,39 +100,4 @@ public class MenuInScrollViewActivity extends ActionBarActivity implements Float
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    public void onMenuOpened(FloatingActionMenu menu) {
-        // Only allow one menu to stay open
-        for(FloatingActionMenu iMenu : menus) {
-            iMenu.close(true);
-        }
-        // update our current menu reference
-        currentMenu = menu;
-    }
-
-    @Override
-    public void onMenuClosed(FloatingActionMenu menu) {
-        // remove our current menu reference
-        currentMenu = null;
-    }
-
-    @Override
-    public void onScrollChanged() {
-        // ScrollView is scrolled,
-        // coordinates of main action view has changed.
-        // We need to update item coordinates of the current open menu.
-        if(currentMenu != null) {
-            currentMenu.updateItemPositions();
-        }
-    }
-
-    @Override
-    public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
-        // update the position of the menu when the main layout changes size on events like soft keyboard open/close
-        if(right - left != 0 && bottom - top != 0 &&
-                (oldLeft != left || oldTop != top || oldRight != right || oldBottom != bottom) && bottomMenu != null) {
-            bottomMenu.updateItemPositions();
-        }
-    }
 }
@@ -39,6 +39,10 @@ public class SlideInAnimationHandler extends MenuAnimationHandler {
 
         Animator lastAnimation = null;
         for (int i = 0; i < menu.getSubActionItems().size(); i++) {
+            if(menu.getSubActionItems().get(i).culled) {
+                // The item is outside the window and has not been attached
+                continue;
+            }
 
             menu.getSubActionItems().get(i).view.setAlpha(0);
 
@@ -57,12 +61,12 @@ public class SlideInAnimationHandler extends MenuAnimationHandler {
             animation.setInterpolator(new DecelerateInterpolator());
             animation.addListener(new SubActionItemAnimationListener(menu.getSubActionItems().get(i), ActionType.OPENING));
 
-            if(i == 0) {
+            if(lastAnimation == null) {
                 lastAnimation = animation;
             }
 
             animation.setStartDelay(Math.abs(menu.getSubActionItems().size()/2-i) * LAG_BETWEEN_ITEMS);
-            animation.start();
+            startAnimation(animation);
         }
         if(lastAnimation != null) {
             lastAnimation.addListener(new LastAnimationListener());
@@ -78,6 +82,9 @@ public class SlideInAnimationHandler extends MenuAnimationHandler {
 
         Animator lastAnimation = null;
         for (int i = 0; i < menu.getSubActionItems().size(); i++) {
+            if(menu.getSubActionItems().get(i).culled) {
+                continue;
+            }
 //            PropertyValuesHolder pvhX = PropertyValuesHolder.ofFloat(View.TRANSLATION_X, - (menu.getSubActionItems().get(i).x - center.x + menu.getSubActionItems().get(i).width / 2));
             PropertyValuesHolder pvhY = PropertyValuesHolder.ofFloat(View.TRANSLATION_Y, DIST_Y);
 //            PropertyValuesHolder pvhsX = PropertyValuesHolder.ofFloat(View.SCALE_X, 0);
@@ -89,7 +96,7 @@ public class SlideInAnimationHandler extends MenuAnimationHandler {
             animation.setInterpolator(new AccelerateInterpolator());
             animation.addListener(new SubActionItemAnimationListener(menu.getSubActionItems().get(i), ActionType.CLOSING));
 
-            if(i == 0) {
+            if(lastAnimation == null) {
                 lastAnimation = animation;
             }
 
@@ -99,7 +106,7 @@ public class SlideInAnimationHandler extends MenuAnimationHandler {
             else {
                 animation.setStartDelay((menu.getSubActionItems().size() - i) * LAG_BETWEEN_ITEMS);
             }
-            animation.start();
+            startAnimation(animation);
         }
         if(lastAnimation != null) {
             lastAnimation.addListener(new LastAnimationListener());
@@ -138,7 +145,7 @@ public class SlideInAnimationHandler extends MenuAnimationHandler {
 
         @Override
         public void onAnimationCancel(Animator animation) {
-            restoreSubActionViewAfterAnimation(subActionItem, actionType);
+            // onAnimationEnd follows and restores the view
         }
 
         @Override public void onAnimationRepeat(Animator animation) {}